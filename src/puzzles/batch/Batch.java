@@ -0,0 +1,297 @@
+package puzzles.batch;
+
+import puzzles.chess.model.ChessConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SearchStats;
+import puzzles.common.solver.SolveResult;
+import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverOptions;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solves every puzzle file under a directory, several at once, and prints
+ * one line per file as it finishes: how it ended, the number of moves, the
+ * configurations expanded and generated, the wall time, the bytes the
+ * solving thread allocated and the peak heap use. With more than one job the
+ * heap is shared, so the peak is the peak of the whole run so far; with one
+ * job it is reset before every file.
+ * <p>
+ * Each file is solved by its own search on a pool of --jobs threads. A file
+ * that takes longer than --timeout seconds is stopped at the search's next
+ * check, so slow files only hold up their own thread; one stopped by
+ * --max-nodes or --max-memory is reported as a timeout too, with the limit
+ * it reached as its error. The puzzle type comes from --puzzle or else from a directory named
+ * chess or hoppers on the file's path. The other options are the ones of the
+ * single puzzle mains.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class Batch {
+    /** default number of seconds a file may take */
+    private static final int DEFAULT_TIMEOUT = 60;
+    /** the columns of the csv output, in the order of a result */
+    private static final String CSV_HEADER =
+            "file,puzzle,status,moves,expanded,generated,millis,allocated_bytes,peak_heap_bytes,error";
+
+    /**
+     * how solving one file ended
+     * @param file the puzzle file
+     * @param puzzle chess or hoppers
+     * @param status solved, unsolvable, timeout or error
+     * @param moves number of moves of the solution, -1 without one
+     * @param expanded configurations expanded
+     * @param generated configurations generated
+     * @param millis wall time
+     * @param allocatedBytes bytes allocated by the solving thread, -1 if the JVM cannot tell
+     * @param peakHeapBytes peak heap use
+     * @param error what went wrong, or null
+     */
+    private record Result(Path file, String puzzle, String status, int moves, long expanded, long generated,
+                          long millis, long allocatedBytes, long peakHeapBytes, String error) {
+
+        /**
+         * the result as one line of json
+         * @return String
+         */
+        String toJson(){
+            return "{\"file\":" + quote(file.toString()) + ",\"puzzle\":" + quote(puzzle)
+                    + ",\"status\":" + quote(status) + ",\"moves\":" + moves + ",\"expanded\":" + expanded
+                    + ",\"generated\":" + generated + ",\"millis\":" + millis
+                    + ",\"allocatedBytes\":" + allocatedBytes + ",\"peakHeapBytes\":" + peakHeapBytes
+                    + ",\"error\":" + (error == null ? "null" : quote(error)) + "}";
+        }
+
+        /**
+         * the result as one line of csv
+         * @return String
+         */
+        String toCsv(){
+            return String.join(",", csv(file.toString()), csv(puzzle), status, String.valueOf(moves),
+                    String.valueOf(expanded), String.valueOf(generated), String.valueOf(millis),
+                    String.valueOf(allocatedBytes), String.valueOf(peakHeapBytes),
+                    error == null ? "" : csv(error));
+        }
+    }
+
+    /**
+     * main for the batch solver
+     * @param args
+     * @throws IOException if the directory cannot be read
+     * @throws InterruptedException if interrupted while waiting for results
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SolverOptions options = SolverOptions.parse(args);
+        args = options.getArguments();
+        if (args.length != 1) {
+            System.out.println("Usage: java Batch directory [--puzzle=chess|hoppers] [--format=ndjson|csv] [--jobs=n] [--timeout=seconds] [--max-nodes=n] [--max-memory=bytes] [--strategy=bfs|dfs|iddfs|best|astar|idastar|bidirectional|compact|external|parallel|monotone|parallel-monotone]");
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(Path.of(args[0]))) {
+            files = walk.filter(Files::isRegularFile).filter(file -> file.toString().endsWith(".txt"))
+                    .sorted().collect(Collectors.toList());
+        }
+        int jobs = Integer.parseInt(options.get("jobs", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long timeout = TimeUnit.SECONDS.toMillis(Long.parseLong(options.get("timeout", String.valueOf(DEFAULT_TIMEOUT))));
+        boolean csv = options.get("format", "ndjson").equals("csv");
+        ExecutorService pool = Executors.newFixedThreadPool(jobs, daemons("batch-solver"));
+        CompletionService<Result> results = new ExecutorCompletionService<>(pool);
+        for (Path file : files) {
+            results.submit(() -> solve(file, options, timeout, jobs == 1));
+        }
+        PrintStream out = System.out;
+        if (csv) {
+            out.println(CSV_HEADER);
+        }
+        int failures = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Result result;
+            try {
+                result = results.take().get();
+            } catch (ExecutionException e) {
+                // solve catches everything it can recover from
+                throw new IllegalStateException(e.getCause());
+            }
+            out.println(csv ? result.toCsv() : result.toJson());
+            out.flush();
+            if (result.status().equals("timeout") || result.status().equals("error")) {
+                failures++;
+            }
+        }
+        pool.shutdown();
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * solves one file on the calling thread, within its time limit and the
+     * other limits of the options
+     * @param file the puzzle file
+     * @param options the command line options
+     * @param timeout milliseconds the file may take
+     * @param resetPeak whether to reset the heap peak first, only meaningful
+     *                  when nothing else is being solved
+     * @return Result
+     */
+    private static Result solve(Path file, SolverOptions options, long timeout, boolean resetPeak){
+        if (resetPeak) {
+            for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+                memoryPool.resetPeakUsage();
+            }
+        }
+        String puzzle = options.get("puzzle", puzzleOf(file));
+        Solver solver = new Solver(options.getStrategy());
+        long start = System.nanoTime();
+        String status;
+        int moves = -1;
+        String error = null;
+        SearchStats stats = null;
+        try {
+            SolveResult result = solver.solve(options.newRequest(load(puzzle, file)).setTimeout(timeout));
+            stats = result.stats();
+            switch (result.status()) {
+                case SOLVED -> {
+                    status = "solved";
+                    moves = result.path().size() - 1;
+                }
+                case UNSOLVABLE -> status = "unsolvable";
+                case BUDGET_EXHAUSTED -> {
+                    status = "timeout";
+                    error = result.reason();
+                }
+                default -> {
+                    status = "error";
+                    error = "interrupted";
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            status = "error";
+            error = e.toString();
+        } catch (OutOfMemoryError e) {
+            status = "error";
+            error = "out of memory";
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Result(file, puzzle, status, moves, stats == null ? 0 : stats.getExpanded(),
+                stats == null ? 0 : stats.getGenerated(), millis, stats == null ? -1 : stats.getAllocatedBytes(),
+                peakHeapBytes(), error);
+    }
+
+    /**
+     * reads a puzzle file
+     * @param puzzle chess or hoppers
+     * @param file the puzzle file
+     * @return Configuration
+     * @throws IOException if the file cannot be read
+     */
+    private static Configuration load(String puzzle, Path file) throws IOException {
+        switch (puzzle) {
+            case "chess":
+                return new ChessConfig(file.toString());
+            case "hoppers":
+                return new HoppersConfig(file.toString());
+            default:
+                throw new IllegalArgumentException("Unknown puzzle: " + puzzle);
+        }
+    }
+
+    /**
+     * the puzzle type of a file from the directories on its path
+     * @param file the puzzle file
+     * @return String, chess, hoppers or unknown
+     */
+    private static String puzzleOf(Path file){
+        for (Path part : file.toAbsolutePath()) {
+            if (part.toString().equals("chess") || part.toString().equals("hoppers")) {
+                return part.toString();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * the peak use of every heap pool added up
+     * @return long
+     */
+    private static long peakHeapBytes(){
+        long peak = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                peak += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * creates daemon threads, so a search stuck past its timeout does not
+     * keep the JVM alive
+     * @param name the name of the threads
+     * @return ThreadFactory
+     */
+    private static ThreadFactory daemons(String name){
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * a json string
+     * @param value the text
+     * @return String
+     */
+    private static String quote(String value){
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> result.append("\\\"");
+                case '\\' -> result.append("\\\\");
+                case '\n' -> result.append("\\n");
+                case '\r' -> result.append("\\r");
+                case '\t' -> result.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+                }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * a csv field, quoted when it holds a separator, quote or line break
+     * @param value the text
+     * @return String
+     */
+    private static String csv(String value){
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
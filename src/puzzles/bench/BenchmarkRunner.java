@@ -0,0 +1,155 @@
+package puzzles.bench;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Times small pieces of code the way a benchmark harness does: the code is
+ * run for a warmup period so the JIT compiles it, then for a number of
+ * measured iterations of a fixed length. Each result is the average time per
+ * call with the error of the mean over the iterations, and the bytes the
+ * measuring thread allocated per call. Every value a benchmark returns goes
+ * into a sink so the JIT cannot drop the work that made it.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class BenchmarkRunner {
+
+    /**
+     * the code under test
+     */
+    public interface Benchmark {
+        /**
+         * runs the code once
+         * @return a number computed from the work, so it cannot be dropped
+         * @throws Exception whatever the code throws, failing the benchmark
+         */
+        long run() throws Exception;
+    }
+
+    /**
+     * the measurements of one benchmark
+     * @param name the benchmark
+     * @param nanosPerOp average time per call
+     * @param error half the width of the 99% confidence interval of the average
+     * @param bytesPerOp bytes allocated per call, -1 if the JVM cannot tell
+     * @param ops number of measured calls
+     */
+    public record Result(String name, double nanosPerOp, double error, double bytesPerOp, long ops) {
+    }
+
+    /** milliseconds of warmup */
+    private final long warmupMillis;
+    /** number of measured iterations */
+    private final int iterations;
+    /** milliseconds of each measured iteration */
+    private final long iterationMillis;
+    /** only benchmarks whose name matches are run */
+    private final Pattern include;
+    /** where each result is printed */
+    private final PrintStream out;
+    private final List<Result> results = new ArrayList<>();
+    /** where the values returned by the benchmarks end up */
+    private volatile long sink;
+
+    /**
+     * BenchmarkRunner constructor
+     * @param warmupMillis milliseconds of warmup per benchmark
+     * @param iterations number of measured iterations per benchmark
+     * @param iterationMillis milliseconds of each measured iteration
+     * @param include only benchmarks whose name matches are run
+     * @param out where each result is printed
+     */
+    public BenchmarkRunner(long warmupMillis, int iterations, long iterationMillis, Pattern include,
+                           PrintStream out){
+        this.warmupMillis = warmupMillis;
+        this.iterations = Math.max(2, iterations);
+        this.iterationMillis = iterationMillis;
+        this.include = include;
+        this.out = out;
+    }
+
+    /**
+     * runs a benchmark if its name is included, printing and keeping the result
+     * @param name the benchmark
+     * @param benchmark the code under test
+     * @throws Exception whatever the code throws
+     */
+    public void run(String name, Benchmark benchmark) throws Exception {
+        if (!this.include.matcher(name).find()) {
+            return;
+        }
+        long warmup = iteration(benchmark, this.warmupMillis, 1);
+        // about a tenth of a millisecond of calls between reads of the clock
+        int batch = (int) Math.max(1, Math.min(1 << 20, warmup / Math.max(1, this.warmupMillis * 10)));
+        double[] nanosPerOp = new double[this.iterations];
+        long ops = 0;
+        long allocated = allocatedBytes();
+        for (int i = 0; i < this.iterations; i++) {
+            long start = System.nanoTime();
+            long count = iteration(benchmark, this.iterationMillis, batch);
+            nanosPerOp[i] = (double) (System.nanoTime() - start) / count;
+            ops += count;
+        }
+        long allocatedAfter = allocatedBytes();
+        double mean = 0;
+        for (double value : nanosPerOp) {
+            mean += value / this.iterations;
+        }
+        double variance = 0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean) / (this.iterations - 1);
+        }
+        // 2.576 standard errors either side is the 99% interval
+        double error = 2.576 * Math.sqrt(variance / this.iterations);
+        double bytesPerOp = allocated < 0 || allocatedAfter < 0 ? -1 : (double) (allocatedAfter - allocated) / ops;
+        Result result = new Result(name, mean, error, bytesPerOp, ops);
+        this.results.add(result);
+        this.out.printf("%-60s %14.1f +- %10.1f ns/op %14.1f B/op%n", name, mean, error, bytesPerOp);
+    }
+
+    /**
+     * getter for the results so far
+     * @return List<Result>
+     */
+    public List<Result> getResults(){
+        return this.results;
+    }
+
+    /**
+     * calls the benchmark until the time is up, at least one batch
+     * @param benchmark the code under test
+     * @param millis how long to keep calling
+     * @param batch number of calls between reads of the clock
+     * @return number of calls
+     * @throws Exception whatever the code throws
+     */
+    private long iteration(Benchmark benchmark, long millis, int batch) throws Exception {
+        long end = System.nanoTime() + millis * 1_000_000;
+        long count = 0;
+        long sum = 0;
+        do {
+            for (int i = 0; i < batch; i++) {
+                sum += benchmark.run();
+            }
+            count += batch;
+        } while (System.nanoTime() < end);
+        this.sink = sum;
+        return count;
+    }
+
+    /**
+     * bytes allocated so far by the calling thread
+     * @return long, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes(){
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
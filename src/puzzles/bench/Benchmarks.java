@@ -0,0 +1,184 @@
+package puzzles.bench;
+
+import puzzles.chess.model.ChessConfig;
+import puzzles.clock.ClockConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverOptions;
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.strings.StringsConfig;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The benchmark suite: Solver.solve and Solver.bfs end to end on every
+ * chess and hoppers data file and on a range of clock and strings inputs,
+ * and getNeighbors, isSolution, hashCode and equals on one configuration of
+ * every kind. Results are written as json, the average time per call, its
+ * error and the bytes allocated per call, and can be compared against the
+ * json of an earlier run.
+ * <ul>
+ *     <li>{@code --include=regex} runs only the benchmarks whose name matches</li>
+ *     <li>{@code --warmup=ms} warmup per benchmark, default 1000</li>
+ *     <li>{@code --iterations=n} measured iterations per benchmark, default 5</li>
+ *     <li>{@code --time=ms} length of each measured iteration, default 1000</li>
+ *     <li>{@code --data=dir} where the chess and hoppers files are, default data</li>
+ *     <li>{@code --output=file} where the json goes, default bench-results.json</li>
+ *     <li>{@code --baseline=file} json of an earlier run to compare against</li>
+ * </ul>
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class Benchmarks {
+    /** hours, start and stop of the clock inputs */
+    private static final int[][] CLOCKS = {{12, 2, 11}, {12, 2, 15}, {24, 22, 9}, {100, 90, 30}, {1000, 42, 722}};
+    /** start and finish of the strings inputs */
+    private static final String[][] STRINGS = {{"AB", "XD"}, {"ABC", "BZD"}, {"CAT", "DOG"}, {"MARCH", "APRIL"}};
+    /** a result in the json written by this class */
+    private static final Pattern RESULT = Pattern.compile("\"benchmark\":\"([^\"]*)\"[^}]*\"score\":([-0-9.Ee]+)");
+
+    /**
+     * main for the benchmark suite
+     * @param args
+     * @throws Exception whatever a benchmark throws
+     */
+    public static void main(String[] args) throws Exception {
+        SolverOptions options = SolverOptions.parse(args);
+        PrintStream console = System.out;
+        BenchmarkRunner runner = new BenchmarkRunner(Long.parseLong(options.get("warmup", "1000")),
+                Integer.parseInt(options.get("iterations", "5")), Long.parseLong(options.get("time", "1000")),
+                Pattern.compile(options.get("include", "")), console);
+        Path data = Path.of(options.get("data", "data"));
+        for (Path file : files(data.resolve("chess"))) {
+            ChessConfig config = new ChessConfig(file.toString());
+            solve(runner, "chess/" + name(file), config);
+        }
+        for (Path file : files(data.resolve("hoppers"))) {
+            HoppersConfig config = new HoppersConfig(file.toString());
+            solve(runner, "hoppers/" + name(file), config);
+        }
+        for (int[] clock : CLOCKS) {
+            solve(runner, "clock/" + clock[0] + "-" + clock[1] + "-" + clock[2],
+                    new ClockConfig(clock[0], clock[1], clock[2]));
+        }
+        for (String[] strings : STRINGS) {
+            solve(runner, "strings/" + strings[0] + "-" + strings[1], new StringsConfig(strings[0], strings[1]));
+        }
+        ChessConfig chess = new ChessConfig(data.resolve("chess").resolve("chess-9.txt").toString());
+        configuration(runner, "ChessConfig", chess, new ChessConfig(chess));
+        HoppersConfig hoppers = new HoppersConfig(data.resolve("hoppers").resolve("hoppers-8.txt").toString());
+        configuration(runner, "HoppersConfig", hoppers, hoppers.copy());
+        configuration(runner, "ClockConfig", new ClockConfig(1000, 42, 722), new ClockConfig(1000, 42, 722));
+        configuration(runner, "StringsConfig", new StringsConfig("MARCH", "APRIL"),
+                new StringsConfig("MARCH", "APRIL"));
+        Path output = Path.of(options.get("output", "bench-results.json"));
+        Files.writeString(output, toJson(runner.getResults()));
+        console.println("Results written to " + output);
+        String baseline = options.get("baseline", null);
+        if (baseline != null) {
+            compare(console, Files.readString(Path.of(baseline)), runner.getResults());
+        }
+    }
+
+    /**
+     * the end to end benchmarks of one input
+     * @param runner the harness
+     * @param name the input
+     * @param config the initial configuration
+     * @throws Exception whatever the solver throws
+     */
+    private static void solve(BenchmarkRunner runner, String name, Configuration config) throws Exception {
+        Solver solver = new Solver();
+        runner.run("solve/" + name, () -> solver.solve(config).size());
+        runner.run("bfs/" + name, () -> solver.bfs(config).size());
+    }
+
+    /**
+     * the microbenchmarks of one kind of configuration
+     * @param runner the harness
+     * @param name the class
+     * @param config the configuration
+     * @param equal a different configuration equal to it
+     * @throws Exception whatever the configuration throws
+     */
+    private static void configuration(BenchmarkRunner runner, String name, Configuration config,
+                                      Configuration equal) throws Exception {
+        runner.run(name + ".getNeighbors", () -> config.getNeighbors().size());
+        runner.run(name + ".isSolution", () -> config.isSolution() ? 1 : 0);
+        runner.run(name + ".hashCode", config::hashCode);
+        runner.run(name + ".equals", () -> config.equals(equal) ? 1 : 0);
+    }
+
+    /**
+     * the puzzle files of a directory, in order
+     * @param directory the directory
+     * @return List<Path>
+     * @throws IOException if the directory cannot be read
+     */
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> list = Files.list(directory)) {
+            return list.filter(file -> file.toString().endsWith(".txt")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * a file name without its extension
+     * @param file the file
+     * @return String
+     */
+    private static String name(Path file){
+        String name = file.getFileName().toString();
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+
+    /**
+     * the results as a json array, one object per benchmark
+     * @param results the results
+     * @return String
+     */
+    private static String toJson(List<BenchmarkRunner.Result> results){
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            BenchmarkRunner.Result result = results.get(i);
+            json.append(String.format(Locale.ROOT, "  {\"benchmark\":\"%s\",\"mode\":\"avgt\",\"unit\":\"ns/op\","
+                            + "\"score\":%.3f,\"scoreError\":%.3f,\"allocBytesPerOp\":%.1f,\"ops\":%d}",
+                    result.name(), result.nanosPerOp(), result.error(), result.bytesPerOp(), result.ops()));
+            json.append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        return json.append("]\n").toString();
+    }
+
+    /**
+     * prints how every result changed from the baseline
+     * @param out where to print
+     * @param baseline the json of the earlier run
+     * @param results the results of this run
+     */
+    private static void compare(PrintStream out, String baseline, List<BenchmarkRunner.Result> results){
+        Map<String, Double> before = new HashMap<>();
+        Matcher matcher = RESULT.matcher(baseline);
+        while (matcher.find()) {
+            before.put(matcher.group(1), Double.parseDouble(matcher.group(2)));
+        }
+        for (BenchmarkRunner.Result result : results) {
+            Double score = before.get(result.name());
+            if (score == null) {
+                out.printf("%-60s %14s -> %14.1f ns/op%n", result.name(), "new", result.nanosPerOp());
+            } else {
+                out.printf("%-60s %14.1f -> %14.1f ns/op %+7.1f%%%n", result.name(), score, result.nanosPerOp(),
+                        100 * (result.nanosPerOp() - score) / score);
+            }
+        }
+    }
+}
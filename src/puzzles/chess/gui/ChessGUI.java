@@ -1,9 +1,11 @@
 package puzzles.chess.gui;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
@@ -12,9 +14,11 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import puzzles.common.Observer;
 import puzzles.chess.model.ChessModel;
+import puzzles.common.solver.SolveResult;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author gonzaloestrella
@@ -34,6 +38,16 @@ public class ChessGUI extends Application implements Observer<ChessModel, String
     private Button hint;
     private Button load;
     private Button reset;
+    /** spins while a hint is being searched for */
+    private ProgressIndicator hintProgress;
+    /** how far the hint search has got */
+    private Label hintStatus;
+    /** the hint the gui is waiting for, or null */
+    private CompletableFuture<ChessModel.Hint> pendingHint;
+    /** whether the puzzle can still be solved from the board */
+    private Label solvableStatus;
+    /** the solvability check the gui is waiting for, or null */
+    private CompletableFuture<SolveResult> pendingCheck;
     private String fileName;
     /** The resources directory is located directly underneath the gui package */
     private final static String RESOURCES_DIR = "resources/";
@@ -87,7 +101,12 @@ public class ChessGUI extends Application implements Observer<ChessModel, String
         load = new Button("Load");
         reset = new Button("Reset");
         hint = new Button("Hint");
-        hint.setOnAction(event -> model.hint());
+        hint.setOnAction(event -> hint());
+        hintProgress = new ProgressIndicator();
+        hintProgress.setPrefSize(FONT_SIZE * 2, FONT_SIZE * 2);
+        hintProgress.setVisible(false);
+        hintStatus = new Label();
+        solvableStatus = new Label();
         load.setOnAction(event -> {
             try {
                 model.load(getFile());
@@ -97,12 +116,42 @@ public class ChessGUI extends Application implements Observer<ChessModel, String
         });
         reset.setOnAction(event -> model.reset());
         HBox actionButtons = new HBox();
-        actionButtons.getChildren().addAll(space1, load, reset, hint, space2);
+        actionButtons.getChildren().addAll(space1, load, reset, hint, hintProgress, hintStatus, solvableStatus, space2);
         borderPane.setBottom(actionButtons);
         Scene scene = new Scene(borderPane);
         stage.setScene(scene);
         stage.setTitle("Chess GUI");
         stage.show();
+        checkSolvable();
+    }
+
+    /**
+     * asks the model for a hint without blocking the javafx thread. the
+     * search runs on the hint thread of the model and the hint is applied
+     * back on the javafx thread, unless a move, reset or load cancelled it
+     */
+    private void hint(){
+        CompletableFuture<ChessModel.Hint> search = model.findHint((request, stats) -> Platform.runLater(() -> {
+            if(!request.isCancelled()){
+                hintStatus.setText("Searched " + stats.getExpanded() + " configurations");
+            }
+        }));
+        pendingHint = search;
+        hintProgress.setVisible(true);
+        search.whenCompleteAsync((found, error) -> {
+            if(pendingHint != search){
+                // a newer hint was asked for, it hides the indicator when it is done
+                return;
+            }
+            pendingHint = null;
+            hintProgress.setVisible(false);
+            hintStatus.setText("");
+            if(error != null){
+                label.setText("Hint failed: " + error.getMessage());
+            }else{
+                model.applyHint(found);
+            }
+        }, Platform::runLater);
     }
 
     /**
@@ -136,17 +185,17 @@ public class ChessGUI extends Application implements Observer<ChessModel, String
                 }else{
                     button.setBackground(LIGHT);
                 }
-                if(model.getCurrentConfig().getInitialConfiguration()[row][col] == 'B'){
+                if(model.getCurrentConfig().getCell(row, col) == 'B'){
                     button.setGraphic(new ImageView(bishop));
-                }else if (model.getCurrentConfig().getInitialConfiguration()[row][col] == 'K') {
+                }else if (model.getCurrentConfig().getCell(row, col) == 'K') {
                     button.setGraphic(new ImageView(king));
-                }else if (model.getCurrentConfig().getInitialConfiguration()[row][col] == 'N') {
+                }else if (model.getCurrentConfig().getCell(row, col) == 'N') {
                     button.setGraphic(new ImageView(knight));
-                }else if (model.getCurrentConfig().getInitialConfiguration()[row][col] == 'P') {
+                }else if (model.getCurrentConfig().getCell(row, col) == 'P') {
                     button.setGraphic(new ImageView(pawn));
-                }else if (model.getCurrentConfig().getInitialConfiguration()[row][col] == 'Q') {
+                }else if (model.getCurrentConfig().getCell(row, col) == 'Q') {
                     button.setGraphic(new ImageView(queen));
-                }else if (model.getCurrentConfig().getInitialConfiguration()[row][col] == 'R') {
+                }else if (model.getCurrentConfig().getCell(row, col) == 'R') {
                     button.setGraphic(new ImageView(rook));
                 }
                 board[row][col] = button;
@@ -159,6 +208,26 @@ public class ChessGUI extends Application implements Observer<ChessModel, String
         return gridPane;
     }
 
+    /**
+     * asks the model if the puzzle can still be solved from the board
+     * without blocking the javafx thread, and shows the answer once it
+     * comes. a check for an earlier board is dropped
+     */
+    private void checkSolvable(){
+        CompletableFuture<SolveResult> check = model.checkSolvable();
+        pendingCheck = check;
+        if(!check.isDone()){
+            solvableStatus.setText("Checking if solvable...");
+        }
+        check.whenCompleteAsync((result, error) -> {
+            if(pendingCheck != check){
+                return;
+            }
+            pendingCheck = null;
+            solvableStatus.setText(error != null ? "" : ChessModel.solvability(result));
+        }, Platform::runLater);
+    }
+
     /**
      * updates the model
      * @param chessModel the object that wishes to inform this object
@@ -168,12 +237,26 @@ public class ChessGUI extends Application implements Observer<ChessModel, String
      */
     @Override
     public void update(ChessModel chessModel, String msg) {
+        if(!Platform.isFxApplicationThread()){
+            Platform.runLater(() -> update(chessModel, msg));
+            return;
+        }
         new GridPane();
         GridPane newPane;
         newPane = generateGrid();
         label.setText(msg);
         borderPane.setCenter(newPane);
         this.stage.sizeToScene();  // when a different sized puzzle is loaded
+        checkSolvable();
+    }
+
+    /**
+     * stops a hint search or solvability check still running when the
+     * window is closed
+     */
+    @Override
+    public void stop(){
+        model.cancelHint();
     }
 
     public static void main(String[] args) {
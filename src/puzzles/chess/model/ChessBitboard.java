@@ -0,0 +1,478 @@
+package puzzles.chess.model;
+
+import java.util.Arrays;
+
+/**
+ * Capture generator for chess solitaire on bitboards. A board is one mask
+ * per piece type, in the order of ChessConfig.PIECES, with a bit per cell in
+ * row-major order. King, knight and pawn captures come from attack tables
+ * worked out once per board size, and rook, bishop and queen captures from
+ * ray tables: the piece captured along a line is the nearest occupied cell
+ * of the ray. Boards of up to 64 cells use one long per piece type, bigger
+ * boards several.
+ * <p>
+ * A move is packed into an int: the from cell, the to cell, the code of the
+ * captured piece and the code of the moving piece, where a code is the
+ * position in PIECES plus one.
+ *
+ * @author gonzaloestrella
+ */
+abstract class ChessBitboard {
+    /** piece types, the positions in PIECES */
+    static final int BISHOP = 0;
+    static final int KING = 1;
+    static final int KNIGHT = 2;
+    static final int PAWN = 3;
+    static final int QUEEN = 4;
+    static final int ROOK = 5;
+    static final int TYPES = 6;
+
+    /** bits per cell index in a packed move, boards can have up to 1024 cells */
+    private static final int CELL_BITS = 10;
+    /** mask for one cell index of a packed move */
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    /** most cells a board can have for its moves to pack */
+    static final int MAX_CELLS = 1 << CELL_BITS;
+
+    /** pawns capture diagonally up the board */
+    private static final int[][] PAWN_STEPS = {{-1, -1}, {-1, 1}};
+    /** kings capture on every cell around them */
+    private static final int[][] KING_STEPS = {{-1, -1}, {1, -1}, {-1, 0}, {1, 0}, {-1, 1}, {1, 1}, {0, -1}, {0, 1}};
+    /** knights jump two cells one way and one the other */
+    private static final int[][] KNIGHT_STEPS = {{-2, -1}, {-2, 1}, {2, -1}, {2, 1}, {-1, -2}, {1, -2}, {-1, 2}, {1, 2}};
+    /** the eight lines, rook lines first then bishop lines */
+    private static final int[][] LINES = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    /** indexes into LINES of the rook lines */
+    private static final int[] ROOK_LINES = {0, 1, 2, 3};
+    /** indexes into LINES of the bishop lines */
+    private static final int[] BISHOP_LINES = {4, 5, 6, 7};
+
+    final int rows;
+    final int columns;
+    /** number of longs per mask */
+    final int words;
+
+    /**
+     * ChessBitboard constructor
+     * @param rows int
+     * @param columns int
+     */
+    ChessBitboard(int rows, int columns){
+        this.rows = rows;
+        this.columns = columns;
+        this.words = (rows * columns + 63) / 64;
+    }
+
+    /**
+     * the generator for a board size, single word up to 64 cells
+     * @param rows int
+     * @param columns int
+     * @return ChessBitboard
+     */
+    static ChessBitboard of(int rows, int columns){
+        if (rows * columns <= 64) {
+            return new SingleWord(rows, columns);
+        }
+        return new MultiWord(rows, columns);
+    }
+
+    /**
+     * writes every capture of the board into the buffer
+     * @param pieces the masks, words longs per type
+     * @param moves int[]
+     * @return int number of moves written
+     */
+    abstract int generateMoves(long[] pieces, int[] moves);
+
+    /**
+     * the type of a piece
+     * @param piece char
+     * @return int, -1 for an empty cell
+     */
+    static int type(char piece){
+        switch (piece) {
+            case 'B': return BISHOP;
+            case 'K': return KING;
+            case 'N': return KNIGHT;
+            case 'P': return PAWN;
+            case 'Q': return QUEEN;
+            case 'R': return ROOK;
+            default: return -1;
+        }
+    }
+
+    /**
+     * packs a capture
+     * @param from int cell of the moving piece
+     * @param to int cell of the captured piece
+     * @param captured int type of the captured piece
+     * @param moving int type of the moving piece
+     * @return int
+     */
+    static int move(int from, int to, int captured, int moving){
+        return from | to << CELL_BITS | (captured + 1) << 2 * CELL_BITS | (moving + 1) << 2 * CELL_BITS + 3;
+    }
+
+    /**
+     * the cell a move starts from
+     * @param move int
+     * @return int
+     */
+    static int from(int move){
+        return move & CELL_MASK;
+    }
+
+    /**
+     * the cell a move captures on
+     * @param move int
+     * @return int
+     */
+    static int to(int move){
+        return (move >>> CELL_BITS) & CELL_MASK;
+    }
+
+    /**
+     * the type of the captured piece
+     * @param move int
+     * @return int
+     */
+    static int captured(int move){
+        return ((move >>> 2 * CELL_BITS) & 7) - 1;
+    }
+
+    /**
+     * the type of the moving piece
+     * @param move int
+     * @return int
+     */
+    static int moving(int move){
+        return (move >>> 2 * CELL_BITS + 3) - 1;
+    }
+
+    /**
+     * the cells a piece reaches in one step from every cell
+     * @param steps row and column offsets
+     * @return int[][] cells per starting cell
+     */
+    int[][] stepTargets(int[][] steps){
+        int[][] targets = new int[this.rows * this.columns][];
+        for (int y = 0; y < this.rows; y++) {
+            for (int x = 0; x < this.columns; x++) {
+                int[] cells = new int[steps.length];
+                int count = 0;
+                for (int[] step : steps) {
+                    int row = y + step[0];
+                    int col = x + step[1];
+                    if (row >= 0 && row < this.rows && col >= 0 && col < this.columns) {
+                        cells[count++] = row * this.columns + col;
+                    }
+                }
+                targets[y * this.columns + x] = Arrays.copyOf(cells, count);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * the cells of the ray from every cell along one line, nearest first
+     * @param line row and column direction
+     * @return int[][] cells per starting cell
+     */
+    int[][] rayTargets(int[] line){
+        int[][] targets = new int[this.rows * this.columns][];
+        for (int y = 0; y < this.rows; y++) {
+            for (int x = 0; x < this.columns; x++) {
+                int[] cells = new int[Math.max(this.rows, this.columns)];
+                int count = 0;
+                for (int row = y + line[0], col = x + line[1];
+                     row >= 0 && row < this.rows && col >= 0 && col < this.columns;
+                     row += line[0], col += line[1]) {
+                    cells[count++] = row * this.columns + col;
+                }
+                targets[y * this.columns + x] = Arrays.copyOf(cells, count);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * whether a line runs toward higher cell indexes, so the nearest cell of
+     * its ray is the lowest set bit
+     * @param line index into LINES
+     * @return boolean
+     */
+    static boolean ascending(int line){
+        return LINES[line][0] > 0 || (LINES[line][0] == 0 && LINES[line][1] > 0);
+    }
+
+    /**
+     * bitboards of one long per piece type, for boards of up to 64 cells
+     */
+    static final class SingleWord extends ChessBitboard {
+        private final long[] pawnAttacks;
+        private final long[] kingAttacks;
+        private final long[] knightAttacks;
+        /** the ray of every line from every cell */
+        private final long[][] rays;
+
+        /**
+         * SingleWord constructor
+         * @param rows int
+         * @param columns int
+         */
+        SingleWord(int rows, int columns){
+            super(rows, columns);
+            this.pawnAttacks = masks(stepTargets(PAWN_STEPS));
+            this.kingAttacks = masks(stepTargets(KING_STEPS));
+            this.knightAttacks = masks(stepTargets(KNIGHT_STEPS));
+            this.rays = new long[LINES.length][];
+            for (int line = 0; line < LINES.length; line++) {
+                this.rays[line] = masks(rayTargets(LINES[line]));
+            }
+        }
+
+        /**
+         * turns lists of cells into one mask per starting cell
+         * @param targets cells per starting cell
+         * @return long[]
+         */
+        private static long[] masks(int[][] targets){
+            long[] masks = new long[targets.length];
+            for (int cell = 0; cell < targets.length; cell++) {
+                for (int target : targets[cell]) {
+                    masks[cell] |= 1L << target;
+                }
+            }
+            return masks;
+        }
+
+        @Override
+        int generateMoves(long[] pieces, int[] moves){
+            long occupied = 0;
+            for (int type = 0; type < TYPES; type++) {
+                occupied |= pieces[type];
+            }
+            int count = 0;
+            for (int type = 0; type < TYPES; type++) {
+                for (long left = pieces[type]; left != 0; left &= left - 1) {
+                    int from = Long.numberOfTrailingZeros(left);
+                    switch (type) {
+                        case PAWN -> count = addTargets(pieces, moves, count, from, type,
+                                this.pawnAttacks[from] & occupied);
+                        case KING -> count = addTargets(pieces, moves, count, from, type,
+                                this.kingAttacks[from] & occupied);
+                        case KNIGHT -> count = addTargets(pieces, moves, count, from, type,
+                                this.knightAttacks[from] & occupied);
+                        case ROOK -> count = addSlides(pieces, moves, count, from, type, occupied, ROOK_LINES);
+                        case BISHOP -> count = addSlides(pieces, moves, count, from, type, occupied, BISHOP_LINES);
+                        default -> {
+                            count = addSlides(pieces, moves, count, from, type, occupied, ROOK_LINES);
+                            count = addSlides(pieces, moves, count, from, type, occupied, BISHOP_LINES);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * adds a capture of every occupied cell in a mask
+         * @param pieces the masks
+         * @param moves int[]
+         * @param count int moves already in the buffer
+         * @param from int cell of the moving piece
+         * @param type int type of the moving piece
+         * @param targets occupied cells the piece attacks
+         * @return int new number of moves
+         */
+        private static int addTargets(long[] pieces, int[] moves, int count, int from, int type, long targets){
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                moves[count++] = move(from, to, typeAt(pieces, to), type);
+            }
+            return count;
+        }
+
+        /**
+         * adds the capture of the nearest piece along each line
+         * @param pieces the masks
+         * @param moves int[]
+         * @param count int moves already in the buffer
+         * @param from int cell of the moving piece
+         * @param type int type of the moving piece
+         * @param occupied every occupied cell
+         * @param lines indexes into LINES
+         * @return int new number of moves
+         */
+        private int addSlides(long[] pieces, int[] moves, int count, int from, int type, long occupied, int[] lines){
+            for (int line : lines) {
+                long blockers = this.rays[line][from] & occupied;
+                if (blockers != 0) {
+                    int to = ascending(line) ? Long.numberOfTrailingZeros(blockers)
+                            : 63 - Long.numberOfLeadingZeros(blockers);
+                    moves[count++] = move(from, to, typeAt(pieces, to), type);
+                }
+            }
+            return count;
+        }
+
+        /**
+         * the type of the piece on an occupied cell
+         * @param pieces the masks
+         * @param cell int
+         * @return int
+         */
+        private static int typeAt(long[] pieces, int cell){
+            int type = 0;
+            while ((pieces[type] & (1L << cell)) == 0) {
+                type++;
+            }
+            return type;
+        }
+    }
+
+    /**
+     * bitboards of several longs per piece type, for boards of more than 64
+     * cells. Every table holds words longs per cell.
+     */
+    static final class MultiWord extends ChessBitboard {
+        private final long[] pawnAttacks;
+        private final long[] kingAttacks;
+        private final long[] knightAttacks;
+        /** the ray of every line from every cell */
+        private final long[][] rays;
+
+        /**
+         * MultiWord constructor
+         * @param rows int
+         * @param columns int
+         */
+        MultiWord(int rows, int columns){
+            super(rows, columns);
+            this.pawnAttacks = masks(stepTargets(PAWN_STEPS));
+            this.kingAttacks = masks(stepTargets(KING_STEPS));
+            this.knightAttacks = masks(stepTargets(KNIGHT_STEPS));
+            this.rays = new long[LINES.length][];
+            for (int line = 0; line < LINES.length; line++) {
+                this.rays[line] = masks(rayTargets(LINES[line]));
+            }
+        }
+
+        /**
+         * turns lists of cells into one multi word mask per starting cell
+         * @param targets cells per starting cell
+         * @return long[]
+         */
+        private long[] masks(int[][] targets){
+            long[] masks = new long[targets.length * this.words];
+            for (int cell = 0; cell < targets.length; cell++) {
+                for (int target : targets[cell]) {
+                    masks[cell * this.words + (target >>> 6)] |= 1L << target;
+                }
+            }
+            return masks;
+        }
+
+        /**
+         * one word of the mask of every occupied cell
+         * @param pieces the masks
+         * @param word int
+         * @return long
+         */
+        private long occupied(long[] pieces, int word){
+            long occupied = 0;
+            for (int type = 0; type < TYPES; type++) {
+                occupied |= pieces[type * this.words + word];
+            }
+            return occupied;
+        }
+
+        @Override
+        int generateMoves(long[] pieces, int[] moves){
+            int count = 0;
+            for (int type = 0; type < TYPES; type++) {
+                for (int word = 0; word < this.words; word++) {
+                    for (long left = pieces[type * this.words + word]; left != 0; left &= left - 1) {
+                        int from = word << 6 | Long.numberOfTrailingZeros(left);
+                        switch (type) {
+                            case PAWN -> count = addTargets(pieces, moves, count, from, type, this.pawnAttacks);
+                            case KING -> count = addTargets(pieces, moves, count, from, type, this.kingAttacks);
+                            case KNIGHT -> count = addTargets(pieces, moves, count, from, type, this.knightAttacks);
+                            case ROOK -> count = addSlides(pieces, moves, count, from, type, ROOK_LINES);
+                            case BISHOP -> count = addSlides(pieces, moves, count, from, type, BISHOP_LINES);
+                            default -> {
+                                count = addSlides(pieces, moves, count, from, type, ROOK_LINES);
+                                count = addSlides(pieces, moves, count, from, type, BISHOP_LINES);
+                            }
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * adds a capture of every occupied cell a step table reaches
+         * @param pieces the masks
+         * @param moves int[]
+         * @param count int moves already in the buffer
+         * @param from int cell of the moving piece
+         * @param type int type of the moving piece
+         * @param attacks the step table
+         * @return int new number of moves
+         */
+        private int addTargets(long[] pieces, int[] moves, int count, int from, int type, long[] attacks){
+            for (int word = 0; word < this.words; word++) {
+                long targets = attacks[from * this.words + word] & occupied(pieces, word);
+                for (; targets != 0; targets &= targets - 1) {
+                    int to = word << 6 | Long.numberOfTrailingZeros(targets);
+                    moves[count++] = move(from, to, typeAt(pieces, to), type);
+                }
+            }
+            return count;
+        }
+
+        /**
+         * adds the capture of the nearest piece along each line, searching
+         * the words of the ray from the piece outward
+         * @param pieces the masks
+         * @param moves int[]
+         * @param count int moves already in the buffer
+         * @param from int cell of the moving piece
+         * @param type int type of the moving piece
+         * @param lines indexes into LINES
+         * @return int new number of moves
+         */
+        private int addSlides(long[] pieces, int[] moves, int count, int from, int type, int[] lines){
+            for (int line : lines) {
+                long[] ray = this.rays[line];
+                boolean up = ascending(line);
+                for (int i = 0; i < this.words; i++) {
+                    int word = up ? i : this.words - 1 - i;
+                    long blockers = ray[from * this.words + word] & occupied(pieces, word);
+                    if (blockers != 0) {
+                        int to = word << 6 | (up ? Long.numberOfTrailingZeros(blockers)
+                                : 63 - Long.numberOfLeadingZeros(blockers));
+                        moves[count++] = move(from, to, typeAt(pieces, to), type);
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * the type of the piece on an occupied cell
+         * @param pieces the masks
+         * @param cell int
+         * @return int
+         */
+        private int typeAt(long[] pieces, int cell){
+            int type = 0;
+            while ((pieces[type * this.words + (cell >>> 6)] & (1L << cell)) == 0) {
+                type++;
+            }
+            return type;
+        }
+    }
+}
@@ -1,37 +1,58 @@
 package puzzles.chess.model;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.GridSymmetry;
+import puzzles.common.solver.MonotoneConfiguration;
+import puzzles.common.solver.MoveConfiguration;
+import puzzles.common.solver.SymmetricConfiguration;
+import puzzles.common.solver.Zobrist;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * @author gonzaloestrella
  */
 
-public class ChessConfig implements Configuration {
-    private static int rows;
-    private static int columns;
-    private char[][] initialConfiguration;
+public class ChessConfig implements SymmetricConfiguration, MoveConfiguration, MonotoneConfiguration {
+    /** the size, capture generator and symmetries of the board, shared by every board of the puzzle */
+    private final ChessGeometry geometry;
+    /** the cells of the board in row-major order */
+    private final char[] board;
+    /** Zobrist hash of the board, kept up to date by setCell */
+    private long hash;
+    /** one mask per piece type, kept up to date by setCell */
+    private long[] pieces;
     public final static ArrayList<Character> PIECES = new ArrayList<>(Arrays.asList('B', 'K', 'N', 'P', 'Q', 'R'));
+    /** cells packed into one word of the encoding, three bits each */
+    private final static int CELLS_PER_WORD = 21;
 
     /**
      * ChessConfig constructor
      * @param filename String
      * @throws IOException
+     * @throws IllegalArgumentException if the board has more cells than a move can pack
      */
     public ChessConfig(String filename) throws IOException {
         Scanner out = new Scanner(new File(filename));
         String line[] = out.nextLine().split(" ");
-        rows = Integer.parseInt(line[0]);
-        columns = Integer.parseInt(line[1]);
-        this.initialConfiguration = new char[rows][columns];
-        for(int y = 0; y < rows; y++){
+        int rows = Integer.parseInt(line[0]);
+        int columns = Integer.parseInt(line[1]);
+        if((long) rows * columns > ChessBitboard.MAX_CELLS){
+            throw new IllegalArgumentException(filename + ": boards can have up to " + ChessBitboard.MAX_CELLS
+                    + " cells, this one has " + (long) rows * columns);
+        }
+        this.geometry = new ChessGeometry(rows, columns);
+        this.board = new char[this.geometry.cells()];
+        for(int y = 0; y < this.geometry.rows; y++){
             line = out.nextLine().split(" ");
             for(int x = 0; x < line.length; x++){
-                initialConfiguration[y][x] = line[x].charAt(0);
+                this.board[y * this.geometry.columns + x] = line[x].charAt(0);
             }
         }
+        this.hash = computeHash();
+        fillPieces();
     }
 
     /**
@@ -39,20 +60,83 @@ public class ChessConfig implements Configuration {
      * @param other ChessConfig
      */
     public ChessConfig(ChessConfig other){
-        this.initialConfiguration = new char[rows][columns];
-        for(int y = 0; y < rows; y++){
-            for(int x =0; x < columns; x++){
-                this.initialConfiguration[y][x] = other.initialConfiguration[y][x];
+        this.geometry = other.geometry;
+        this.board = other.board.clone();
+        this.hash = other.hash;
+        this.pieces = other.pieces.clone();
+    }
+
+    /**
+     * the code of a piece for hashing and encoding, 0 for an empty cell and
+     * the position in PIECES plus one for a piece
+     * @param piece char
+     * @return int
+     */
+    private static int code(char piece){
+        switch (piece) {
+            case 'B': return 1;
+            case 'K': return 2;
+            case 'N': return 3;
+            case 'P': return 4;
+            case 'Q': return 5;
+            case 'R': return 6;
+            default: return 0;
+        }
+    }
+
+    /**
+     * hashes the whole board, XOR of the Zobrist keys of every piece
+     * @return long
+     */
+    private long computeHash(){
+        long result = 0;
+        for(int cell = 0; cell < this.board.length; cell++){
+            result ^= Zobrist.key(cell, code(this.board[cell]));
+        }
+        return result;
+    }
+
+    /**
+     * builds the mask of every piece type from the board, reusing the masks
+     * when there are some
+     */
+    private void fillPieces(){
+        int words = this.geometry.bitboard.words;
+        if(this.pieces == null){
+            this.pieces = new long[ChessBitboard.TYPES * words];
+        }else{
+            Arrays.fill(this.pieces, 0L);
+        }
+        long[] result = this.pieces;
+        for(int cell = 0; cell < this.board.length; cell++){
+            int type = ChessBitboard.type(this.board[cell]);
+            if(type >= 0){
+                result[type * words + (cell >>> 6)] |= 1L << cell;
             }
         }
     }
 
     /**
-     * getter for initialConfiguration
-     * @return
+     * getter for initialConfiguration, a copy of the board as rows, changing
+     * it does not change this board, that goes through setCell
+     * @return char[][]
      */
     public char[][] getInitialConfiguration(){
-        return this.initialConfiguration;
+        char[][] result = new char[this.geometry.rows][];
+        for(int y = 0; y < this.geometry.rows; y++){
+            result[y] = Arrays.copyOfRange(this.board, y * this.geometry.columns, (y + 1) * this.geometry.columns);
+        }
+        return result;
+    }
+
+    /**
+     * getter for cell
+     * @param row int
+     * @param col int
+     * @return char
+     */
+    public char getCell(int row, int col){
+        return this.board[row * this.geometry.columns + col];
     }
 
     /**
@@ -62,7 +146,18 @@ public class ChessConfig implements Configuration {
      * @param col col
      */
     public void setCell(char piece, int row, int col){
-        initialConfiguration[row][col] = piece;
+        int cell = row * this.geometry.columns + col;
+        int words = this.geometry.bitboard.words;
+        this.hash ^= Zobrist.key(cell, code(this.board[cell])) ^ Zobrist.key(cell, code(piece));
+        int old = ChessBitboard.type(this.board[cell]);
+        if(old >= 0){
+            this.pieces[old * words + (cell >>> 6)] &= ~(1L << cell);
+        }
+        int type = ChessBitboard.type(piece);
+        if(type >= 0){
+            this.pieces[type * words + (cell >>> 6)] |= 1L << cell;
+        }
+        this.board[cell] = piece;
     }
 
     /**
@@ -70,7 +165,7 @@ public class ChessConfig implements Configuration {
      * @return int
      */
     public int getRows(){
-        return rows;
+        return this.geometry.rows;
     }
 
     /**
@@ -78,37 +173,31 @@ public class ChessConfig implements Configuration {
      * @return int
      */
     public int getColumns(){
-        return columns;
+        return this.geometry.columns;
     }
 
     /**
-     * checks if the instance object is the same as an other object
+     * checks if the instance object is the same as an other object, boards
+     * of different sizes are never equal
      * @param other
      * @return boolean
      */
     @Override
     public boolean equals(Object other){
-        if(other instanceof  ChessConfig){
-            for (int y = 0; y < rows; y++){
-                for(int x = 0; x < columns; x++){
-                    if(((ChessConfig) other).initialConfiguration[y][x] != this.initialConfiguration[y][x]){
-                        return false;
-                    }
-                }
-            }
-        }else{
-            return false;
+        if(other instanceof ChessConfig o){
+            return o.hash == this.hash && o.geometry.sameAs(this.geometry) && Arrays.equals(o.board, this.board);
         }
-        return true;
+        return false;
     }
 
     /**
-     * hashes the double array
+     * the Zobrist hash of the board, updated by every setCell instead of
+     * hashing the whole board on every call
      * @return int
      */
     @Override
     public int hashCode(){
-        return Arrays.deepHashCode(this.initialConfiguration);
+        return Zobrist.fold(this.hash);
     }
 
     /**
@@ -119,11 +208,11 @@ public class ChessConfig implements Configuration {
     public String toString(){
         StringBuilder result = new StringBuilder();
         result.append("\n");
-        for(int y=0; y< rows; y++){
-            for(int x=0; x< columns; x++){
-                result.append(initialConfiguration[y][x] + " ");
+        for(int y=0; y< this.geometry.rows; y++){
+            for(int x=0; x< this.geometry.columns; x++){
+                result.append(getCell(y, x) + " ");
             }
-            if(y < rows-1){
+            if(y < this.geometry.rows-1){
                 result.append("\n");
             }
         }
@@ -136,18 +225,111 @@ public class ChessConfig implements Configuration {
      */
     @Override
     public boolean isSolution() {
-        int counter=0;
-        for(int y=0; y < rows; y++){
-            for(int x=0; x < columns; x++){
-                if(PIECES.contains(this.initialConfiguration[y][x])){
-                    counter++;
-                }
-                if(counter>1){
-                    return false;
-                }
-            }
+        return pieceCount() <= 1;
+    }
+
+    /**
+     * number of pieces on the board
+     * @return int
+     */
+    private int pieceCount(){
+        int counter = 0;
+        for(long mask : this.pieces){
+            counter += Long.bitCount(mask);
+        }
+        return counter;
+    }
+
+    /**
+     * every capture removes one piece, so the number of pieces minus one is
+     * the number of moves left
+     * @return int
+     */
+    @Override
+    public int heuristic() {
+        return Math.max(0, pieceCount()-1);
+    }
+
+    /**
+     * every move is a capture and the board is solved with one piece left,
+     * so every solution is exactly pieces minus one moves away
+     * @return int
+     */
+    @Override
+    public int movesLeft(){
+        return heuristic();
+    }
+
+    /**
+     * number of words needed to encode the board, three bits per cell
+     * @return int
+     */
+    @Override
+    public int encodedWords(){
+        return (this.board.length + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+    }
+
+    /**
+     * packs the board three bits per cell in row-major order, 0 for an empty
+     * cell and the position in PIECES plus one for a piece
+     * @param words long[]
+     * @param offset int
+     */
+    @Override
+    public void encode(long[] words, int offset){
+        Arrays.fill(words, offset, offset + encodedWords(), 0L);
+        for(int cell = 0; cell < this.board.length; cell++){
+            long code = code(this.board[cell]);
+            words[offset + cell / CELLS_PER_WORD] |= code << (cell % CELLS_PER_WORD * 3);
+        }
+    }
+
+    /**
+     * rebuilds a board from an encoding made by encode
+     * @param words long[]
+     * @param offset int
+     * @return Configuration
+     */
+    @Override
+    public Configuration decode(long[] words, int offset){
+        ChessConfig decoded = new ChessConfig(this);
+        decoded.load(words, offset);
+        return decoded;
+    }
+
+    /**
+     * overwrites this board with an encoding made by encode
+     * @param words long[]
+     * @param offset int
+     */
+    @Override
+    public void load(long[] words, int offset){
+        for(int cell = 0; cell < this.board.length; cell++){
+            int code = (int) (words[offset + cell / CELLS_PER_WORD] >>> (cell % CELLS_PER_WORD * 3)) & 7;
+            this.board[cell] = code == 0 ? '.' : PIECES.get(code - 1);
+        }
+        this.hash = computeHash();
+        fillPieces();
+    }
+
+    /**
+     * packs the board like encode, but as the smallest encoding over the
+     * rotations and reflections of the board, only the mirror while there
+     * are pawns since they capture up the board
+     * @param words long[]
+     * @param offset int
+     */
+    @Override
+    public void encodeCanonical(long[] words, int offset){
+        GridSymmetry.Scratch scratch = this.geometry.scratch.get();
+        int[] codes = scratch.codes;
+        boolean pawns = false;
+        for(int cell = 0; cell < this.board.length; cell++){
+            codes[cell] = code(this.board[cell]);
+            pawns |= this.board[cell] == 'P';
         }
-        return true;
+        int[][] permutations = pawns ? this.geometry.pawnSymmetries : this.geometry.symmetries;
+        GridSymmetry.encodeMin(scratch, permutations, words, offset);
     }
 
     /**
@@ -157,7 +339,7 @@ public class ChessConfig implements Configuration {
      * @return boolean
      */
     public boolean inBounds(int row , int col){
-        return (col >= 0 && col < columns) && (row >= 0 && row < rows);
+        return (col >= 0 && col < this.geometry.columns) && (row >= 0 && row < this.geometry.rows);
     }
 
     /**
@@ -167,321 +349,83 @@ public class ChessConfig implements Configuration {
     @Override
     public Collection<Configuration> getNeighbors(){
         Collection<Configuration> neighbors = new LinkedList<>();
-        for(int y =0; y < rows; y++){
-            for(int x =0; x < columns; x++){
-                if(this.initialConfiguration[y][x] == '.'){
-
-                }else if(this.initialConfiguration[y][x] == 'P'){
-                    if(inBounds(y-1, x-1)){ // left neighbor
-                        if(PIECES.contains(this.initialConfiguration[y-1][x-1])){
-                            ChessConfig pawn1 = new ChessConfig(this);
-                            (pawn1.initialConfiguration)[y][x] ='.';
-                            (pawn1.initialConfiguration)[y-1][x-1] = 'P';
-                            neighbors.add(pawn1);
-                        }
-                    }
-                    if(inBounds(y-1, x+1)) { //right neighbor
-                        if(PIECES.contains(this.initialConfiguration[y-1][x+1])){
-                            ChessConfig pawn2 = new ChessConfig(this);
-                            (pawn2.initialConfiguration)[y][x] ='.';
-                            (pawn2.initialConfiguration)[y-1][x+1] = 'P';
-                            neighbors.add(pawn2);
-                        }
-                    }
-                }else if(this.initialConfiguration[y][x] == 'K'){
-                    for(int i=0; i < 3; i++){
-                        if(inBounds(y-1, (x-1)+i)){
-                            if(PIECES.contains(this.initialConfiguration[y-1][(x-1)+i])){
-                                ChessConfig king1 = new ChessConfig(this);
-                                (king1.initialConfiguration)[y][x] ='.';
-                                (king1.initialConfiguration)[y-1][(x-1)+i] = 'K';
-                                neighbors.add(king1);
-                            }
-                        }
-                        if(inBounds(y+1, (x-1)+i)){
-                            if(PIECES.contains(this.initialConfiguration[y+1][(x-1)+i])){
-                                ChessConfig king2 = new ChessConfig(this);
-                                (king2.initialConfiguration)[y][x] ='.';
-                                (king2.initialConfiguration)[y+1][(x-1)+i] = 'K';
-                                neighbors.add(king2);
-                            }
-                        }
-                    }
-                    if(inBounds(y, x-1)){
-                        if(PIECES.contains(this.initialConfiguration[y][x-1])){
-                            ChessConfig king3 = new ChessConfig(this);
-                            (king3.initialConfiguration)[y][x] ='.';
-                            (king3.initialConfiguration)[y][x-1] = 'K';
-                            neighbors.add(king3);
-                        }
-                    }
-                    if(inBounds(y, x+1)){
-                        if(PIECES.contains(this.initialConfiguration[y][x+1])){
-                            ChessConfig king4 = new ChessConfig(this);
-                            (king4.initialConfiguration)[y][x] ='.';
-                            (king4.initialConfiguration)[y][x+1] = 'K';
-                            neighbors.add(king4);
-                        }
-                    }
-                }else if(this.initialConfiguration[y][x] == 'R'){
-                    for(int i = x+1; i < columns; i++){
-                        if(PIECES.contains(this.initialConfiguration[y][i])){
-                            ChessConfig rook1 = new ChessConfig(this);
-                            (rook1.initialConfiguration)[y][x] ='.';
-                            (rook1.initialConfiguration)[y][i] = 'R';
-                            neighbors.add(rook1);
-                            break;
-                        }
-                    }
-                    for(int i = x-1; i >= 0; i--){
-                        if(PIECES.contains(this.initialConfiguration[y][i])){
-                            ChessConfig rook2 = new ChessConfig(this);
-                            (rook2.initialConfiguration)[y][x] ='.';
-                            (rook2.initialConfiguration)[y][i] = 'R';
-                            neighbors.add(rook2);
-                            break;
-                        }
-                    }
-                    for(int i = y+1; i < rows; i++){
-                        if(PIECES.contains(this.initialConfiguration[i][x])){
-                            ChessConfig rook3 = new ChessConfig(this);
-                            (rook3.initialConfiguration)[y][x] ='.';
-                            (rook3.initialConfiguration)[i][x] = 'R';
-                            neighbors.add(rook3);
-                            break;
-                        }
-                    }
-                    for(int i = y-1; i >= 0; i--){
-                        if(PIECES.contains(this.initialConfiguration[i][x])){
-                            ChessConfig rook4 = new ChessConfig(this);
-                            (rook4.initialConfiguration)[y][x] ='.';
-                            (rook4.initialConfiguration)[i][x] = 'R';
-                            neighbors.add(rook4);
-                            break;
-                        }
-                    }
-                }else if(this.initialConfiguration[y][x] == 'B'){
-                    int fr = 0;
-                    if(columns > rows){
-                        fr = columns;
-                    }else{
-                        fr = rows;
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y-i, x-i)){
-                            if(PIECES.contains(this.initialConfiguration[y -i][x -i])){
-                                ChessConfig bishop1 = new ChessConfig(this);
-                                (bishop1.initialConfiguration)[y][x] ='.';
-                                (bishop1.initialConfiguration)[y-i][x-i] = 'B';
-                                neighbors.add(bishop1);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y-i, x+i)){
-                            if(PIECES.contains(this.initialConfiguration[y-i][x+i])){
-                                ChessConfig bishop2 = new ChessConfig(this);
-                                (bishop2.initialConfiguration)[y][x] ='.';
-                                (bishop2.initialConfiguration)[y-i][x+i] = 'B';
-                                neighbors.add(bishop2);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y+i, x-i)){
-                            if(PIECES.contains(this.initialConfiguration[y+i][x-i])){
-                                ChessConfig bishop3 = new ChessConfig(this);
-                                (bishop3.initialConfiguration)[y][x] ='.';
-                                (bishop3.initialConfiguration)[y+i][x-i] = 'B';
-                                neighbors.add(bishop3);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y+i, x+i)){
-                            if(PIECES.contains(this.initialConfiguration[y+i][x+i])){
-                                ChessConfig bishop4 = new ChessConfig(this);
-                                (bishop4.initialConfiguration)[y][x] ='.';
-                                (bishop4.initialConfiguration)[y+i][x+i] = 'B';
-                                neighbors.add(bishop4);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                }else if(this.initialConfiguration[y][x] == 'N'){
-                    if(inBounds(y-2, x-1)){
-                        if(PIECES.contains(this.initialConfiguration[y-2][x-1])){
-                            ChessConfig knight1 = new ChessConfig(this);
-                            (knight1.initialConfiguration)[y][x] ='.';
-                            (knight1.initialConfiguration)[y-2][x-1] = 'N';
-                            neighbors.add(knight1);
-                        }
-                    }
-                    if(inBounds(y-2, x+1)){
-                        if(PIECES.contains(this.initialConfiguration[y-2][x+1])){
-                            ChessConfig knight2 = new ChessConfig(this);
-                            (knight2.initialConfiguration)[y][x] ='.';
-                            (knight2.initialConfiguration)[y-2][x+1] = 'N';
-                            neighbors.add(knight2);
-                        }
-                    }
-                    if(inBounds(y+2, x-1)){
-                        if(PIECES.contains(this.initialConfiguration[y+2][x-1])){
-                            ChessConfig knight3 = new ChessConfig(this);
-                            (knight3.initialConfiguration)[y][x] ='.';
-                            (knight3.initialConfiguration)[y+2][x-1] = 'N';
-                            neighbors.add(knight3);
-                        }
-                    }
-                    if(inBounds(y+2, x+1)){
-                        if(PIECES.contains(this.initialConfiguration[y+2][x +1])){
-                            ChessConfig knight4 = new ChessConfig(this);
-                            (knight4.initialConfiguration)[y][x] ='.';
-                            (knight4.initialConfiguration)[y +2][x +1] = 'N';
-                            neighbors.add(knight4);
-                        }
-                    }
-                    if(inBounds(y-1, x-2)){
-                        if(PIECES.contains(this.initialConfiguration[y-1][x-2])){
-                            ChessConfig knight5 = new ChessConfig(this);
-                            (knight5.initialConfiguration)[y][x] ='.';
-                            (knight5.initialConfiguration)[y-1][x-2] = 'N';
-                            neighbors.add(knight5);
-                        }
-                    }
-                    if(inBounds(y+1, x-2)){
-                        if(PIECES.contains(this.initialConfiguration[y+1][x-2])){
-                            ChessConfig knight6 = new ChessConfig(this);
-                            (knight6.initialConfiguration)[y][x] ='.';
-                            (knight6.initialConfiguration)[y+1][x-2] = 'N';
-                            neighbors.add(knight6);
-                        }
-                    }
-                    if(inBounds(y-1, x+2)){
-                        if(PIECES.contains(this.initialConfiguration[y-1][x+2])){
-                            ChessConfig knight7 = new ChessConfig(this);
-                            (knight7.initialConfiguration)[y][x] ='.';
-                            (knight7.initialConfiguration)[y-1][x+2] = 'N';
-                            neighbors.add(knight7);
-                        }
-                    }
-                    if(inBounds(y+1, x+2)){
-                        if(PIECES.contains(this.initialConfiguration[y+1][x+2])){
-                            ChessConfig knight8 = new ChessConfig(this);
-                            (knight8.initialConfiguration)[y][x] ='.';
-                            (knight8.initialConfiguration)[y+1][x+2] = 'N';
-                            neighbors.add(knight8);
-                        }
-                    }
-                }else if(this.initialConfiguration[y][x] == 'Q'){
-                    for(int i = x+1; i < columns; i++){
-                        if(PIECES.contains(this.initialConfiguration[y][i])){
-                            ChessConfig rook1 = new ChessConfig(this);
-                            (rook1.initialConfiguration)[y][x] ='.';
-                            (rook1.initialConfiguration)[y][i] = 'Q';
-                            neighbors.add(rook1);
-                            break;
-                        }
-                    }
-                    for(int i = x-1; i >= 0; i--){
-                        if(PIECES.contains(this.initialConfiguration[y][i])){
-                            ChessConfig rook2 = new ChessConfig(this);
-                            (rook2.initialConfiguration)[y][x] ='.';
-                            (rook2.initialConfiguration)[y][i] = 'Q';
-                            neighbors.add(rook2);
-                            break;
-                        }
-                    }
-                    for(int i = y+1; i < rows; i++){
-                        if(PIECES.contains(this.initialConfiguration[i][x])){
-                            ChessConfig rook3 = new ChessConfig(this);
-                            (rook3.initialConfiguration)[y][x] ='.';
-                            (rook3.initialConfiguration)[i][x] = 'Q';
-                            neighbors.add(rook3);
-                            break;
-                        }
-                    }
-                    for(int i = y-1; i >= 0; i--){
-                        if(PIECES.contains(this.initialConfiguration[i][x])){
-                            ChessConfig rook4 = new ChessConfig(this);
-                            (rook4.initialConfiguration)[y][x] ='.';
-                            (rook4.initialConfiguration)[i][x] = 'Q';
-                            neighbors.add(rook4);
-                            break;
-                        }
-                    }
-                    int fr = 0;
-                    if(columns > rows){
-                        fr = columns;
-                    }else{
-                        fr = rows;
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y-i, x-i)){
-                            if(PIECES.contains(this.initialConfiguration[y-i][x-i])){
-                                ChessConfig bishop1 = new ChessConfig(this);
-                                (bishop1.initialConfiguration)[y][x] ='.';
-                                (bishop1.initialConfiguration)[y-i][x-i] = 'Q';
-                                neighbors.add(bishop1);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y-i, x+i)){
-                            if(PIECES.contains(this.initialConfiguration[y-i][x+i])){
-                                ChessConfig bishop2 = new ChessConfig(this);
-                                (bishop2.initialConfiguration)[y][x] ='.';
-                                (bishop2.initialConfiguration)[y-i][x+i] = 'Q';
-                                neighbors.add(bishop2);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y+i, x-i)){
-                            if(PIECES.contains(this.initialConfiguration[y+i][x-i])){
-                                ChessConfig bishop3 = new ChessConfig(this);
-                                (bishop3.initialConfiguration)[y][x] ='.';
-                                (bishop3.initialConfiguration)[y+i][x-i] = 'Q';
-                                neighbors.add(bishop3);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                    for(int i=1; i < fr; i++){
-                        if(inBounds(y+i, x+i)){
-                            if(PIECES.contains(this.initialConfiguration[y+i][x+i])){
-                                ChessConfig bishop4 = new ChessConfig(this);
-                                (bishop4.initialConfiguration)[y][x] ='.';
-                                (bishop4.initialConfiguration)[y+i][x+i] = 'Q';
-                                neighbors.add(bishop4);
-                                break;
-                            }
-                        }else{
-                            break;
-                        }
-                    }
-                }
-            }
-            }
+        forEachNeighbor(neighbors::add);
         return neighbors;
     }
+
+    /**
+     * builds the neighbors one at a time from the moves of this board,
+     * without the intermediate collection
+     * @param action Consumer<Configuration>
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> action){
+        int[] moves = new int[maxMoves()];
+        int count = generateMoves(moves);
+        for(int i = 0; i < count; i++){
+            ChessConfig neighbor = new ChessConfig(this);
+            neighbor.makeMove(moves[i]);
+            action.accept(neighbor);
+        }
+    }
+
+    /**
+     * most moves a board can have, eight per cell
+     * @return int
+     */
+    @Override
+    public int maxMoves(){
+        return 8 * this.board.length;
+    }
+
+    /**
+     * writes every capture of this board into the buffer, using the
+     * bitboard generator. Pawns capture diagonally up the board, kings and
+     * knights one step and rooks, bishops and queens the first piece along
+     * each line.
+     * @param moves int[] at least maxMoves long
+     * @return int number of moves written
+     */
+    @Override
+    public int generateMoves(int[] moves){
+        return this.geometry.bitboard.generateMoves(this.pieces, moves);
+    }
+
+    /**
+     * applies a capture made by generateMoves
+     * @param move int
+     */
+    @Override
+    public void makeMove(int move){
+        int from = ChessBitboard.from(move);
+        int to = ChessBitboard.to(move);
+        char moving = PIECES.get(ChessBitboard.moving(move));
+        int columns = this.geometry.columns;
+        setCell('.', from / columns, from % columns);
+        setCell(moving, to / columns, to % columns);
+    }
+
+    /**
+     * takes back a capture applied with makeMove
+     * @param move int
+     */
+    @Override
+    public void unmakeMove(int move){
+        int from = ChessBitboard.from(move);
+        int to = ChessBitboard.to(move);
+        char moving = PIECES.get(ChessBitboard.moving(move));
+        char captured = PIECES.get(ChessBitboard.captured(move));
+        int columns = this.geometry.columns;
+        setCell(moving, from / columns, from % columns);
+        setCell(captured, to / columns, to % columns);
+    }
+
+    /**
+     * an independent copy of this board
+     * @return ChessConfig
+     */
+    @Override
+    public ChessConfig copy(){
+        return new ChessConfig(this);
+    }
 }
@@ -0,0 +1,56 @@
+package puzzles.chess.model;
+
+import puzzles.common.solver.GridSymmetry;
+
+/**
+ * The fixed part of a chess solitaire puzzle: the size of the board, its
+ * capture generator and its symmetries. It is worked out once when a puzzle
+ * is read and shared by every configuration of that puzzle, so boards of
+ * different sizes can be searched at the same time.
+ *
+ * @author gonzaloestrella
+ */
+final class ChessGeometry {
+    final int rows;
+    final int columns;
+    /** the capture generator for the board size */
+    final ChessBitboard bitboard;
+    /** every rotation and reflection of the board, used once the pawns are gone */
+    final int[][] symmetries;
+    /** the identity and the left to right mirror, pawns only capture up the board */
+    final int[][] pawnSymmetries;
+    /** the buffers of canonical encodings, one per search thread, three bits per cell */
+    final ThreadLocal<GridSymmetry.Scratch> scratch;
+
+    /**
+     * ChessGeometry constructor
+     * @param rows int
+     * @param columns int
+     */
+    ChessGeometry(int rows, int columns){
+        this.rows = rows;
+        this.columns = columns;
+        this.bitboard = ChessBitboard.of(rows, columns);
+        this.symmetries = GridSymmetry.dihedral(rows, columns).toArray(new int[0][]);
+        this.pawnSymmetries = GridSymmetry.mirror(rows, columns).toArray(new int[0][]);
+        int cells = rows * columns;
+        this.scratch = ThreadLocal.withInitial(() -> new GridSymmetry.Scratch(cells, 3));
+    }
+
+    /**
+     * number of cells on the board
+     * @return int
+     */
+    int cells(){
+        return this.rows * this.columns;
+    }
+
+    /**
+     * checks if two geometries describe boards of the same size
+     * @param other ChessGeometry
+     * @return boolean
+     */
+    boolean sameAs(ChessGeometry other){
+        return this == other || (this.rows == other.rows && this.columns == other.columns);
+    }
+}
@@ -1,10 +1,21 @@
 package puzzles.chess.model;
 
 import puzzles.common.Observer;
+import puzzles.common.solver.HintCache;
+import puzzles.common.solver.SearchStats;
+import puzzles.common.solver.SolutionCache;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.DistanceTable;
+import puzzles.common.solver.SolveRequest;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.solver.Solver;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import static puzzles.chess.model.ChessConfig.PIECES;
 
 /**
@@ -23,7 +34,41 @@ public class ChessModel {
     private int rowSelected;
     private int colSelected;
     public final String HORI_WALL = "-";
+    /** milliseconds between progress updates of a hint search */
+    public static final long PROGRESS_INTERVAL = 100;
     private String filename;
+    /** what earlier hints found out about the puzzle */
+    private final HintCache hints = new HintCache();
+    /** the distance to a solution of every board of the puzzle, filled in the background */
+    private DistanceTable distances;
+    /** solutions kept between runs, or null if the cache file cannot be used */
+    private final SolutionCache solutions = openSolutions();
+    /** runs hint searches and solvability checks through the hint cache, looking in the solution cache first */
+    private final Solver hintSolver = new Solver(this.hints, this.solutions);
+    /** the hint search running or waiting to run, or null */
+    private final AtomicReference<SolveRequest> pendingHint = new AtomicReference<>();
+    /** the solvability check running or waiting to run, or null */
+    private final AtomicReference<SolveRequest> pendingCheck = new AtomicReference<>();
+    /** the last solvability check, or null */
+    private CompletableFuture<SolveResult> lastCheck;
+    /** the board the last solvability check is for */
+    private ChessConfig checkedBoard;
+    /** runs the hint searches one at a time, the only thread that uses the hint cache */
+    private final ExecutorService hintThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chess-hints");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** changes whenever the board changes or a new hint is asked for, a hint found before is dropped */
+    private int hintVersion;
+
+    /**
+     * a hint found for a board
+     * @param version the hint version when it was asked for
+     * @param result how the search ended, the path starts at the board it was asked for
+     */
+    public record Hint(int version, SolveResult result) {
+    }
     /**
      * The view calls this to add itself as an observer.
      *
@@ -59,7 +104,7 @@ public class ChessModel {
         for(int y=0; y< this.currentConfig.getRows(); y++){
             result.append(y + "| ");
             for(int x=0; x< this.currentConfig.getColumns(); x++){
-                result.append(currentConfig.getInitialConfiguration()[y][x] + " ");
+                result.append(currentConfig.getCell(y, x) + " ");
             }
             if(y < this.currentConfig.getRows()){
                 result.append("\n");
@@ -75,7 +120,10 @@ public class ChessModel {
      */
     public ChessModel(String filename) throws IOException {
         this.initialConfig = new ChessConfig(filename);
-        this.currentConfig = new ChessConfig(filename);
+        this.currentConfig = new ChessConfig(this.initialConfig);
+        this.filename = filename;
+        startDistances();
+        rememberSolution();
         this.isSelected = false;
         this.rowSelected =0;
         this.colSelected =0;
@@ -85,7 +133,8 @@ public class ChessModel {
      * resets the board
      */
     public void reset(){
-        this.currentConfig = initialConfig;
+        dropHint();
+        this.currentConfig = new ChessConfig(initialConfig);
         this.alertObservers("Puzzle reset!");
     }
 
@@ -95,25 +144,279 @@ public class ChessModel {
      * @throws IOException
      */
     public void load(String filename) throws IOException {
+        dropHint();
+        boolean newPuzzle = !filename.equals(this.filename);
+        if(newPuzzle){
+            this.hintThread.execute(this.hints::clear);
+        }
         this.initialConfig = new ChessConfig(filename);
-        this.currentConfig = this.initialConfig;
+        this.currentConfig = new ChessConfig(this.initialConfig);
+        this.filename = filename;
+        if(newPuzzle){
+            startDistances();
+            rememberSolution();
+        }
         this.alertObservers("Loaded: " + filename);
     }
 
     /**
-     * calls bfs and returns a hint for the current configuration
+     * starts filling in the distance table of the loaded puzzle in the
+     * background, stopping the one of the puzzle loaded before
+     */
+    private void startDistances(){
+        if(this.distances != null){
+            this.distances.cancel();
+        }
+        this.distances = new DistanceTable();
+        this.distances.start(new ChessConfig(this.initialConfig));
+    }
+
+    /**
+     * opens the solution cache in its default file
+     * @return SolutionCache, or null if the file cannot be read or created
+     */
+    private static SolutionCache openSolutions(){
+        try{
+            return new SolutionCache(SolutionCache.defaultFile(), SolutionCache.DEFAULT_MAX_ENTRIES);
+        }catch(IOException e){
+            return null;
+        }
+    }
+
+    /**
+     * hands a solution of the loaded puzzle kept by an earlier run to the
+     * hint cache, on the hint thread, so hints along it need no search
+     */
+    private void rememberSolution(){
+        if(this.solutions == null){
+            return;
+        }
+        ChessConfig initial = new ChessConfig(this.initialConfig);
+        this.hintThread.execute(() -> {
+            try{
+                LinkedList<Configuration> path = this.solutions.get(initial);
+                if(path != null){
+                    this.hints.remember(path);
+                }
+            }catch(IOException e){
+                // the hit was not recorded, the solution is still good
+            }
+        });
+    }
+
+    /**
+     * asks the hint cache for the path from a board, on the hint thread. a
+     * solution the solution cache had is handed to the hint cache, so hints
+     * along it need no search
+     * @param request the board and the limits of the search
+     * @param pending where the request waits to be cancelled
+     * @return SolveResult
+     */
+    private SolveResult searchHint(SolveRequest request, AtomicReference<SolveRequest> pending){
+        try{
+            SolveResult result = this.hintSolver.solve(request);
+            if(result.stats().isCached()){
+                this.hints.remember(result.path());
+            }
+            return result;
+        }finally{
+            pending.compareAndSet(request, null);
+        }
+    }
+
+    /**
+     * stops the hint search and the solvability check running, if there
+     * are any. safe to call from any thread
+     */
+    public void cancelHint(){
+        cancel(this.pendingHint);
+        cancel(this.pendingCheck);
+    }
+
+    /**
+     * cancels a request waiting to be cancelled
+     * @param pending where the request waits, emptied
+     */
+    private static void cancel(AtomicReference<SolveRequest> pending){
+        SolveRequest request = pending.getAndSet(null);
+        if(request != null){
+            request.cancel();
+        }
+    }
+
+    /**
+     * stops the hint search and solvability check running and drops any
+     * hint found for the board as it is now, before the board changes
+     */
+    private void dropHint(){
+        cancelHint();
+        this.hintVersion++;
+    }
+
+    /**
+     * checks if the puzzle can still be solved from the current board
+     * without waiting for it. a lookup once the distance table is filled
+     * in, until then a search through the hint cache on the hint thread
+     * that gives up after CHECK_TIMEOUT_MILLIS. asking again before the
+     * board changes gives the same check unless it was cancelled. a check
+     * still running for an earlier board is cancelled, and a move or a hint
+     * cancels this one
+     * @return CompletableFuture<SolveResult>, SOLVED or UNSOLVABLE when it
+     *         is known, BUDGET_EXHAUSTED or CANCELLED when it is not
+     */
+    public CompletableFuture<SolveResult> checkSolvable(){
+        if(this.lastCheck != null && this.currentConfig.equals(this.checkedBoard) && !cancelled(this.lastCheck)){
+            return this.lastCheck;
+        }
+        cancel(this.pendingCheck);
+        ChessConfig board = new ChessConfig(this.currentConfig);
+        this.checkedBoard = board;
+        SolveResult known = lookUp(board);
+        if(known != null){
+            this.lastCheck = CompletableFuture.completedFuture(known);
+        }else{
+            SolveRequest request = new SolveRequest(board).setTimeout(HintCache.CHECK_TIMEOUT_MILLIS);
+            this.pendingCheck.set(request);
+            this.lastCheck = CompletableFuture.supplyAsync(() -> searchHint(request, this.pendingCheck), this.hintThread);
+        }
+        return this.lastCheck;
+    }
+
+    /**
+     * checks if a solvability check ended without an answer because it was
+     * cancelled
+     * @param check the check
+     * @return boolean
+     */
+    private static boolean cancelled(CompletableFuture<SolveResult> check){
+        return check.isCompletedExceptionally()
+                || check.isDone() && check.join().status() == SolveResult.Status.CANCELLED;
+    }
+
+    /**
+     * a line for the player about a solvability check
+     * @param check the result of checkSolvable
+     * @return String, empty if the check was cancelled
+     */
+    public static String solvability(SolveResult check){
+        switch(check.status()){
+            case SOLVED:
+                return "Solvable from here.";
+            case UNSOLVABLE:
+                return "Not solvable from here.";
+            case BUDGET_EXHAUSTED:
+                return "Not known yet if solvable from here.";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * returns a hint for the current configuration, a lookup in the distance
+     * table once it is filled in. Until then, or if the puzzle was too big
+     * for it, the hint cache answers straight away while the board is on a
+     * path an earlier hint or run found and searches only when it is not.
+     * waits for the search on the calling thread
      */
     public void hint(){
-        if(this.currentConfig.isSolution()){
+        hint(null);
+    }
+
+    /**
+     * returns a hint for the current configuration like hint(), telling a
+     * progress observer how a search for it is going
+     * @param progress gets the stats of the running search, or null
+     */
+    public void hint(Observer<SolveRequest, SearchStats> progress){
+        applyHint(findHint(progress).join());
+    }
+
+    /**
+     * looks for a hint for the current board without changing anything.
+     * lookups answer straight away, searches run on the hint thread, one at
+     * a time, giving up after HINT_TIMEOUT_MILLIS. a search still running
+     * for an earlier hint, or a solvability check, is cancelled so the hint
+     * does not wait behind it
+     * @param progress gets the stats of the running search on the hint
+     *                 thread, or null
+     * @return CompletableFuture<Hint> to hand to applyHint
+     */
+    public CompletableFuture<Hint> findHint(Observer<SolveRequest, SearchStats> progress){
+        cancel(this.pendingHint);
+        cancel(this.pendingCheck);
+        this.hintVersion++;
+        int version = this.hintVersion;
+        ChessConfig board = new ChessConfig(this.currentConfig);
+        SolveResult known = lookUp(board);
+        if(known != null){
+            return CompletableFuture.completedFuture(new Hint(version, known));
+        }
+        SolveRequest request = new SolveRequest(board).setTimeout(HintCache.HINT_TIMEOUT_MILLIS)
+                .setProgress(progress, PROGRESS_INTERVAL);
+        this.pendingHint.set(request);
+        return CompletableFuture.supplyAsync(() -> new Hint(version, searchHint(request, this.pendingHint)),
+                this.hintThread);
+    }
+
+    /**
+     * the path from a board when it is answered without a search: the
+     * board itself when it is solved, or a lookup in the distance table
+     * @param board a copy of the current board, the caches keep what they
+     *              are given and select changes the board in place
+     * @return SolveResult, or null if a search has to answer
+     */
+    private SolveResult lookUp(ChessConfig board){
+        LinkedList<Configuration> path = new LinkedList<>();
+        if(board.isSolution()){
+            path.add(board);
+            return lookedUp(SolveResult.Status.SOLVED, path);
+        }
+        int distance = this.distances.distance(board);
+        if(distance == DistanceTable.UNSOLVABLE){
+            return lookedUp(SolveResult.Status.UNSOLVABLE, path);
+        }
+        if(distance != DistanceTable.UNKNOWN){
+            path.add(board);
+            path.add(this.distances.next(board));
+            return lookedUp(SolveResult.Status.SOLVED, path);
+        }
+        return null;
+    }
+
+    /**
+     * a result answered without a search
+     * @param status SOLVED or UNSOLVABLE
+     * @param path the path from the board
+     * @return SolveResult
+     */
+    private static SolveResult lookedUp(SolveResult.Status status, LinkedList<Configuration> path){
+        return new SolveResult(status, path, new SearchStats(0, 0, 0, 0, 0, 0, 0, false), null);
+    }
+
+    /**
+     * makes the move a hint found, unless the board changed or another hint
+     * was asked for since. a search that ran out of time or was cancelled
+     * leaves the board as it is
+     * @param hint the hint from findHint
+     */
+    public void applyHint(Hint hint){
+        if(hint.version() != this.hintVersion){
+            return;
+        }
+        SolveResult result = hint.result();
+        LinkedList<Configuration> path = result.path();
+        if(result.status() == SolveResult.Status.BUDGET_EXHAUSTED){
+            this.alertObservers("No hint yet, " + result.reason() + ".");
+        }else if(result.status() == SolveResult.Status.CANCELLED){
+            this.alertObservers("Hint cancelled.");
+        }else if(path.size() == 1){
             this.alertObservers("Already Solved!");
+        }else if(path.isEmpty()){
+            this.alertObservers("No solution.");
         }else{
-            Solver solver = new Solver();
-            if(solver.bfs(currentConfig).isEmpty()){
-                this.alertObservers("No solution.");
-            }else{
-                currentConfig = (ChessConfig) solver.bfs(currentConfig).get(1);
-                this.alertObservers("Next Step!");
-            }
+            this.hintVersion++;
+            currentConfig = new ChessConfig((ChessConfig) path.get(1));
+            this.alertObservers("Next Step!");
         }
     }
 
@@ -141,6 +444,20 @@ public class ChessModel {
         return currentConfig;
     }
 
+    /**
+     * moves the selected piece onto the one at row, col. drops the hint for
+     * the board as it was first
+     * @param piece char
+     * @param row int
+     * @param col int
+     */
+    private void capture(char piece, int row, int col){
+        dropHint();
+        this.currentConfig.setCell(piece, row, col);
+        this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
+        this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+    }
+
     /**
      * checks if it is a valid capture if it is it simulates the capturing
      * @param piece char
@@ -150,15 +467,11 @@ public class ChessModel {
     public void validCapture(char piece, int row, int col){
         if(piece == 'P'){
             if(this.rowSelected-1 == row && this.colSelected -1 == col){
-                this.currentConfig.setCell('P', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('P', row, col);
             } else if (this.rowSelected-1 == row && this.colSelected+1 ==col) {
 
                 // 1,1  -1,-1  1,-1   -1,1
-                this.currentConfig.setCell('P', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('P', row, col);
             }else{
                 this.alertObservers("Can't capture from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
             }
@@ -166,28 +479,20 @@ public class ChessModel {
             boolean found = false;
             for(int i=0; i < 3; i++){
                 if(this.rowSelected-1 == row && (this.colSelected-1)+i == col){
-                    this.currentConfig.setCell('K', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                    capture('K', row, col);
                     found = true;
                     break;
                 }else if(this.rowSelected+1 == row && (this.colSelected-1)+i == col){
-                    this.currentConfig.setCell('K', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                    capture('K', row, col);
                     found = true;
                     break;
                 }
             }
             if(!found){
                 if(this.rowSelected == row && this.colSelected-1 == col){
-                    this.currentConfig.setCell('K', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                    capture('K', row, col);
                 }else if(this.rowSelected == row && this.colSelected+1 == col){
-                    this.currentConfig.setCell('K', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                    capture('K', row, col);
                 }else{
                     this.alertObservers("Can't capture from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
                 }
@@ -195,46 +500,38 @@ public class ChessModel {
         } else if( piece == 'R') {
             boolean found = false;
             for(int i = this.colSelected + 1; i < this.currentConfig.getColumns(); i ++){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i]) && this.rowSelected == row && i == col){
-                    this.currentConfig.setCell('R', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i)) && this.rowSelected == row && i == col){
+                    capture('R', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
             for(int i = this.colSelected - 1; i >= 0; i --){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i]) && this.rowSelected == row && i== col){
-                    this.currentConfig.setCell('R', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i)) && this.rowSelected == row && i== col){
+                    capture('R', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
             for(int i = this.rowSelected + 1; i < this.currentConfig.getRows(); i++){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[i][this.colSelected]) && i == row && this.colSelected== col){
-                    this.currentConfig.setCell('R', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(i, this.colSelected)) && i == row && this.colSelected== col){
+                    capture('R', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
             for(int i = this.rowSelected - 1; i >= 0; i--){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[i][this.colSelected]) && i == row && this.colSelected== col){
-                    this.currentConfig.setCell('R', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(i, this.colSelected)) && i == row && this.colSelected== col){
+                    capture('R', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
@@ -252,11 +549,9 @@ public class ChessModel {
 
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected+i, this.colSelected+i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected+i][this.colSelected+i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected+i, this.colSelected+i))){
                         if(this.rowSelected+i == row && this.colSelected+i == col){
-                            this.currentConfig.setCell('B', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('B', row, col);
                             found = true;
                             break;
                         }
@@ -267,11 +562,9 @@ public class ChessModel {
             }
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected-i, this.colSelected-i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected-i][this.colSelected-i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected-i, this.colSelected-i))){
                         if(this.rowSelected-i == row && this.colSelected-i == col){
-                            this.currentConfig.setCell('B', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('B', row, col);
                             found = true;
                             break;
                         }
@@ -282,11 +575,9 @@ public class ChessModel {
             }
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected-i, this.colSelected+i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected-i][this.colSelected+i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected-i, this.colSelected+i))){
                         if(this.rowSelected-i == row && this.colSelected+i == col){
-                            this.currentConfig.setCell('B', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('B', row, col);
                             found = true;
                             break;
                         }
@@ -297,11 +588,9 @@ public class ChessModel {
             }
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected+i, this.colSelected-i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected+i][this.colSelected-i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected+i, this.colSelected-i))){
                         if(this.rowSelected+i == row && this.colSelected-i == col){
-                            this.currentConfig.setCell('B', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('B', row, col);
                             found = true;
                             break;
                         }
@@ -315,83 +604,59 @@ public class ChessModel {
             }
         } else if( piece == 'N') {
             if(this.rowSelected - 2 == row && this.colSelected-1== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else if(this.rowSelected - 2 == row && this.colSelected+1== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else if(this.rowSelected + 2 == row && this.colSelected-1== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else if(this.rowSelected + 2 == row && this.colSelected+1== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else if(this.rowSelected - 1 == row && this.colSelected+2== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else if(this.rowSelected - 1 == row && this.colSelected-2== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else if(this.rowSelected + 1 == row && this.colSelected+2== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else if(this.rowSelected + 1 == row && this.colSelected-2== col){
-                this.currentConfig.setCell('N', row, col);
-                this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                capture('N', row, col);
             }else{
                 this.alertObservers("Can't capture from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
             }
         } else if( piece == 'Q') {
             boolean found = false;
             for(int i = this.colSelected + 1; i < this.currentConfig.getColumns(); i ++){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i]) && this.rowSelected == row && i == col){
-                    this.currentConfig.setCell('Q', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i)) && this.rowSelected == row && i == col){
+                    capture('Q', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
             for(int i = this.colSelected - 1; i >= 0; i --){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i]) && this.rowSelected == row && i== col){
-                    this.currentConfig.setCell('Q', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i)) && this.rowSelected == row && i== col){
+                    capture('Q', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
             for(int i = this.rowSelected + 1; i < this.currentConfig.getRows(); i++){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[i][this.colSelected]) && i == row && this.colSelected== col){
-                    this.currentConfig.setCell('Q', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(i, this.colSelected)) && i == row && this.colSelected== col){
+                    capture('Q', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
             for(int i = this.rowSelected - 1; i >= 0; i--){
-                if(PIECES.contains(this.currentConfig.getInitialConfiguration()[i][this.colSelected]) && i == row && this.colSelected== col){
-                    this.currentConfig.setCell('Q', row, col);
-                    this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                    this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                if(PIECES.contains(this.currentConfig.getCell(i, this.colSelected)) && i == row && this.colSelected== col){
+                    capture('Q', row, col);
                     found = true;
                     break;
-                } else if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected][i])) {
+                } else if(PIECES.contains(this.currentConfig.getCell(this.rowSelected, i))) {
                     break;
                 }
             }
@@ -404,11 +669,9 @@ public class ChessModel {
 
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected+i, this.colSelected+i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected+i][this.colSelected+i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected+i, this.colSelected+i))){
                         if(this.rowSelected+i == row && this.colSelected+i == col){
-                            this.currentConfig.setCell('Q', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('Q', row, col);
                             found = true;
                             break;
                         }
@@ -419,11 +682,9 @@ public class ChessModel {
             }
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected-i, this.colSelected-i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected-i][this.colSelected-i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected-i, this.colSelected-i))){
                         if(this.rowSelected-i == row && this.colSelected-i == col){
-                            this.currentConfig.setCell('Q', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('Q', row, col);
                             found = true;
                             break;
                         }
@@ -434,11 +695,9 @@ public class ChessModel {
             }
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected-i, this.colSelected+i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected-i][this.colSelected+i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected-i, this.colSelected+i))){
                         if(this.rowSelected-i == row && this.colSelected+i == col){
-                            this.currentConfig.setCell('Q', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('Q', row, col);
                             found = true;
                             break;
                         }
@@ -449,11 +708,9 @@ public class ChessModel {
             }
             for(int i=1; i < fr; i++){
                 if(currentConfig.inBounds(this.rowSelected+i, this.colSelected-i)){
-                    if(PIECES.contains(this.currentConfig.getInitialConfiguration()[this.rowSelected+i][this.colSelected-i])){
+                    if(PIECES.contains(this.currentConfig.getCell(this.rowSelected+i, this.colSelected-i))){
                         if(this.rowSelected+i == row && this.colSelected-i == col){
-                            this.currentConfig.setCell('Q', row, col);
-                            this.currentConfig.setCell('.', this.rowSelected, this.colSelected);
-                            this.alertObservers("Captured from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
+                            capture('Q', row, col);
                             found = true;
                             break;
                         }
@@ -477,13 +734,13 @@ public class ChessModel {
     public void select(int row, int col){
         if(this.currentConfig.inBounds(row, col)){
             if(this.isSelected){
-                if((PIECES).contains(this.currentConfig.getInitialConfiguration()[row][col])){
-                    validCapture(this.currentConfig.getInitialConfiguration()[this.rowSelected][this.colSelected], row, col);
+                if((PIECES).contains(this.currentConfig.getCell(row, col))){
+                    validCapture(this.currentConfig.getCell(this.rowSelected, this.colSelected), row, col);
                 }else{
                     this.alertObservers("Can't capture from ("+this.rowSelected + ", "+this.colSelected+") to ("+row+", "+col+")");
                 }
             }else{
-                if((PIECES).contains(this.currentConfig.getInitialConfiguration()[row][col])){
+                if((PIECES).contains(this.currentConfig.getCell(row, col))){
                     this.alertObservers("Selected ("+row +", "+col +")");
                     this.rowSelected = row;
                     this.colSelected = col;
@@ -46,6 +46,17 @@ public class ChessPTUI implements Observer<ChessModel, String> {
         System.out.println( "r(eset)             -- reset the current game" );
     }
 
+    /**
+     * prints whether the puzzle can still be solved from the board, waiting
+     * at most CHECK_TIMEOUT_MILLIS for a search
+     */
+    private void displaySolvable() {
+        String line = ChessModel.solvability(this.model.checkSolvable().join());
+        if (!line.isEmpty()) {
+            System.out.println(line);
+        }
+    }
+
     /**
      * runs PTUI
      * @throws IOException
@@ -61,12 +72,16 @@ public class ChessPTUI implements Observer<ChessModel, String> {
                     break;
                 } else if (words[0].startsWith("h")) {
                     model.hint();
+                    displaySolvable();
                 } else if (words[0].startsWith("l")) {
                     model.load(words[1]);
+                    displaySolvable();
                 } else if (words[0].startsWith("s")) {
                     model.select(Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+                    displaySolvable();
                 } else if (words[0].startsWith("r")) {
                     model.reset();
+                    displaySolvable();
                 }else {
                     displayHelp();
                 }
@@ -2,22 +2,27 @@ package puzzles.chess.solver;
 
 import puzzles.chess.model.ChessConfig;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverOptions;
 import java.io.IOException;
 import java.util.LinkedList;
 
 public class Chess {
     public static void main(String[] args) throws IOException {
+        SolverOptions options = SolverOptions.parse(args);
+        args = options.getArguments();
         if (args.length != 1) {
-            System.out.println("Usage: java Chess filename");
+            System.out.println("Usage: java Chess filename [--strategy=bfs|dfs|iddfs|best|astar|idastar|bidirectional|compact|external|parallel|monotone|parallel-monotone] [--cache[=file]] [--timeout=seconds] [--max-nodes=n] [--max-memory=bytes] [--stats[=ms]]");
         }else{
             ChessConfig initialConfig = new ChessConfig(args[0]);
             System.out.print(args[0]);
             System.out.println(initialConfig);
-            Solver solver = new Solver();
-            LinkedList<Configuration> path= solver.solve(initialConfig);
+            Solver solver = options.newSolver();
+            SolveResult result = options.solve(solver, initialConfig);
+            LinkedList<Configuration> path = result.path();
             if(path.size() <= 0){
-                System.out.println("No solution");
+                System.out.println(result.message());
             }else{
                 for(int i = 0; i < path.size(); i++){
                     System.out.println("Step "+ i+": "+((ChessConfig) path.get(i))+"\n");
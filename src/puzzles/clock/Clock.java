@@ -1,7 +1,9 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverOptions;
 
 import java.util.LinkedList;
 
@@ -16,18 +18,21 @@ public class Clock {
      * @param args
      */
     public static void main(String[] args) {
+        SolverOptions options = SolverOptions.parse(args);
+        args = options.getArguments();
         if (args.length != 3) {
-            System.out.println(("Usage: java Clock start stop"));
+            System.out.println(("Usage: java Clock hours start stop [--strategy=bfs|dfs|iddfs|best|astar|idastar|bidirectional|compact|external|parallel|monotone|parallel-monotone] [--cache[=file]] [--timeout=seconds] [--max-nodes=n] [--max-memory=bytes] [--stats[=ms]]"));
         } else {
             int hours = Integer.parseInt(args[0]);
             int start = Integer.parseInt(args[1]);
             int end = Integer.parseInt(args[2]);
             ClockConfig initialConfig = new ClockConfig(hours, start, end);
-            Solver solver = new Solver();
+            Solver solver = options.newSolver();
             System.out.println(initialConfig);
-            LinkedList<Configuration> path= solver.solve(initialConfig);
+            SolveResult result = options.solve(solver, initialConfig);
+            LinkedList<Configuration> path = result.path();
             if(path.size() <= 0){
-                System.out.println("No solution");
+                System.out.println(result.message());
             }else{
                 for(int i = 0; i < path.size(); i++){
                     System.out.println("Step "+ i+": "+((ClockConfig) path.get(i)).getStart());
@@ -1,6 +1,8 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodableConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 
 import java.util.Collection;
 import java.util.LinkedList;
@@ -10,7 +12,7 @@ import java.util.Objects;
  * @author gonzaloestrella
  */
 
-public class ClockConfig implements Configuration {
+public class ClockConfig implements ReversibleConfiguration, EncodableConfiguration {
     private final int hours;
     private final int start;
     private final int end;
@@ -51,6 +53,49 @@ public class ClockConfig implements Configuration {
         return this.end;
     }
 
+    /**
+     * the configuration where start has reached end, every move can be
+     * undone by turning the other way so the neighbors are also the predecessors
+     * @return Configuration, or null if end is not an hour on the clock
+     */
+    @Override
+    public Configuration getGoal() {
+        if(this.end < 1 || this.end > this.hours){
+            return null;
+        }
+        return new ClockConfig(this.hours, this.end, this.end);
+    }
+
+    /**
+     * the start is all that changes between configurations, it fits in one word
+     * @return int
+     */
+    @Override
+    public int encodedWords() {
+        return 1;
+    }
+
+    /**
+     * encodes the start
+     * @param words long[]
+     * @param offset int
+     */
+    @Override
+    public void encode(long[] words, int offset) {
+        words[offset] = this.start;
+    }
+
+    /**
+     * rebuilds a configuration with the same hours and end
+     * @param words long[]
+     * @param offset int
+     * @return Configuration
+     */
+    @Override
+    public Configuration decode(long[] words, int offset) {
+        return new ClockConfig(this.hours, (int) words[offset], this.end);
+    }
+
     /**
      * checks if the start for this configuration is the end
      * @return boolean
@@ -60,6 +105,19 @@ public class ClockConfig implements Configuration {
         return this.start == this.end;
     }
 
+    /**
+     * number of ticks between start and end going the shorter way around the clock
+     * @return int
+     */
+    @Override
+    public int heuristic() {
+        if(this.end < 1 || this.end > this.hours){
+            return 0;
+        }
+        int distance = Math.abs(this.start - this.end);
+        return Math.min(distance, this.hours - distance);
+    }
+
     /**
      * gets the neighbors for the current configuration
      * @return LinkedList<Configuration>
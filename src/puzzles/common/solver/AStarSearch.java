@@ -0,0 +1,93 @@
+package puzzles.common.solver;
+
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * A* search ordered by moves made plus {@link Configuration#heuristic()}.
+ * The open list is a {@link BucketQueue} keyed on that sum; among equal sums
+ * the most recently found configuration is expanded first, which favours the
+ * deepest ones. With a heuristic that never overestimates and drops by at
+ * most one per move the path returned is a shortest one.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class AStarSearch extends AbstractSearch {
+
+    /**
+     * an open configuration
+     * @param configuration the configuration
+     * @param depth number of moves from the initial configuration
+     */
+    private record Node(Configuration configuration, int depth) {
+    }
+
+    /**
+     * AStarSearch constructor
+     */
+    public AStarSearch(){
+        this(DEFAULT_EXPECTED_STATES);
+    }
+
+    /**
+     * AStarSearch constructor
+     * @param expectedStates number of states the visited tables are sized for
+     */
+    public AStarSearch(int expectedStates){
+        super(expectedStates);
+    }
+
+    /**
+     * the path returned is a shortest one, the heuristic of every puzzle
+     * never overestimating and dropping by at most one per move
+     * @return true
+     */
+    @Override
+    public boolean isShortest(){
+        return true;
+    }
+
+    /**
+     * Uses A* to get the shortest path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        BucketQueue<Node> open = new BucketQueue<>(true);
+        Map<Configuration, Configuration> predecessors = newVisitedTable();
+        Map<Configuration, Integer> depths = newVisitedTable();
+        open.add(initialConfiguration.heuristic(), new Node(initialConfiguration, 0));
+        predecessors.put(initialConfiguration, initialConfiguration);
+        depths.put(initialConfiguration, 0);
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            Configuration current = node.configuration();
+            if (node.depth() > depths.get(current)) {
+                // a shorter way to this configuration was found after it was queued
+                continue;
+            }
+            expand();
+            reached(node.depth());
+            if (current.isSolution()) {
+                return buildPath(predecessors, current);
+            }
+            int depth = node.depth() + 1;
+            for (Configuration nbr : current.getNeighbors()) {
+                Integer known = depths.get(nbr);
+                if (known == null || depth < known) {
+                    depths.put(nbr, depth);
+                    predecessors.put(nbr, current);
+                    open.add(depth + nbr.heuristic(), new Node(nbr, depth));
+                }
+                if (known != null) {
+                    this.duplicates++;
+                }
+                this.generated++;
+            }
+            frontier(open.size());
+        }
+        return new LinkedList<>();
+    }
+}
@@ -0,0 +1,202 @@
+package puzzles.common.solver;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Shared infrastructure for the search strategies: the counters behind
+ * {@link SearchStats}, pre-sized visited tables and path reconstruction.
+ * <p>
+ * A search can be stopped by interrupting the thread running it: every
+ * {@value #INTERRUPT_CHECK_INTERVAL} expansions it checks, and throws a
+ * {@link CancellationException} once the thread was interrupted.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public abstract class AbstractSearch implements SearchStrategy {
+    /** default number of states a visited table is sized for */
+    public static final int DEFAULT_EXPECTED_STATES = 1 << 12;
+    /** number of expansions between checks for an interrupt, a power of two */
+    public static final int INTERRUPT_CHECK_INTERVAL = 1 << 10;
+
+    /** number of states the visited tables are sized for */
+    private final int expectedStates;
+    protected long generated;
+    protected long expanded;
+    protected long duplicates;
+    protected long peakFrontier;
+    protected int depth;
+
+    /**
+     * AbstractSearch constructor
+     * @param expectedStates number of states the visited table should hold
+     *                       before it has to grow
+     */
+    protected AbstractSearch(int expectedStates){
+        this.expectedStates = Math.max(16, expectedStates);
+    }
+
+    /**
+     * resets the counters, called at the start of every search
+     */
+    protected void reset(){
+        this.generated = 0;
+        this.expanded = 0;
+        this.duplicates = 0;
+        this.peakFrontier = 0;
+        this.depth = 0;
+    }
+
+    /**
+     * takes the counters of a search this one handed its work to
+     * @param other the search that did the work
+     */
+    protected void copyCounters(SearchStrategy other){
+        this.generated = other.getGenerated();
+        this.expanded = other.getExpanded();
+        this.duplicates = other.getDuplicates();
+        this.peakFrontier = other.getPeakFrontier();
+        this.depth = other.getDepth();
+    }
+
+    /**
+     * records the size of the frontier, keeping the largest
+     * @param size number of configurations waiting to be expanded
+     */
+    protected void frontier(long size){
+        if (size > this.peakFrontier) {
+            this.peakFrontier = size;
+        }
+    }
+
+    /**
+     * records the depth of an expanded configuration, keeping the deepest
+     * @param depth moves from the start
+     */
+    protected void reached(int depth){
+        if (depth > this.depth) {
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * counts one expansion, checking every INTERRUPT_CHECK_INTERVAL of them
+     * whether the thread running the search was interrupted
+     * @throws CancellationException if it was
+     */
+    protected void expand(){
+        if ((++this.expanded & (INTERRUPT_CHECK_INTERVAL - 1)) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Search interrupted");
+        }
+    }
+
+    /**
+     * runs a task on a pool, waiting in a way an interrupt can stop. The
+     * pool is shut down when that happens, so its workers stop picking up
+     * the rest of the search.
+     * @param pool the pool
+     * @param task the task
+     * @param <T> the result of the task
+     * @return T
+     * @throws CancellationException if the waiting thread was interrupted
+     */
+    protected static <T> T invoke(ForkJoinPool pool, ForkJoinTask<T> task){
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Search interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * creates a visited table big enough for the expected number of
+     * states, so it does not rehash during the search
+     * @param <V> what the table records for every configuration
+     * @return Map<Configuration, V>
+     */
+    protected <V> Map<Configuration, V> newVisitedTable(){
+        return new HashMap<>((int) (expectedStates / 0.75f) + 1);
+    }
+
+    /**
+     * walks the predecessor table back from the solution to the initial
+     * configuration
+     * @param predecessors maps every visited configuration to its parent,
+     *                     the initial configuration maps to itself
+     * @param solution the solution that was found
+     * @return LinkedList<Configuration> from the initial configuration to the solution
+     */
+    protected static LinkedList<Configuration> buildPath(Map<Configuration, Configuration> predecessors,
+                                                        Configuration solution){
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration currNode = solution;
+        Configuration parent = predecessors.get(currNode);
+        while (parent != currNode) {
+            path.addFirst(currNode);
+            currNode = parent;
+            parent = predecessors.get(currNode);
+        }
+        path.addFirst(currNode);
+        return path;
+    }
+
+    /**
+     * getter for generated
+     * @return long
+     */
+    @Override
+    public long getGenerated(){
+        return this.generated;
+    }
+
+    /**
+     * getter for expanded
+     * @return long
+     */
+    @Override
+    public long getExpanded(){
+        return this.expanded;
+    }
+
+    /**
+     * getter for duplicates
+     * @return long
+     */
+    @Override
+    public long getDuplicates(){
+        return this.duplicates;
+    }
+
+    /**
+     * getter for peakFrontier
+     * @return long
+     */
+    @Override
+    public long getPeakFrontier(){
+        return this.peakFrontier;
+    }
+
+    /**
+     * getter for depth
+     * @return int
+     */
+    @Override
+    public int getDepth(){
+        return this.depth;
+    }
+}
@@ -0,0 +1,110 @@
+package puzzles.common.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded set of dead states shared by many threads without locks. Each
+ * state is reduced to one 64 bit value kept in an open addressing table of
+ * {@link AtomicLongArray} slots that are filled with compare and set. Slots
+ * are never emptied, so a lookup stops at the first empty slot; when the
+ * probes of a state find no room the first one is overwritten and the state
+ * that was there is forgotten.
+ * <p>
+ * A one word key is stored through a bijective mix, so the table is exact.
+ * Wider keys are stored as a 64 bit hash, so two different states could
+ * share a value, which is unlikely enough to ignore for these puzzles.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class AtomicDeadStateTable {
+    /** slots tried for a state before one is overwritten */
+    private static final int PROBES = 8;
+
+    /** number of words per key */
+    private final int width;
+    /** stored values, 0 when empty */
+    private final AtomicLongArray slots;
+    /** the state whose value is 0 and so cannot go in a slot */
+    private final AtomicBoolean zero = new AtomicBoolean();
+    private final int mask;
+
+    /**
+     * AtomicDeadStateTable constructor
+     * @param width number of words per key
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public AtomicDeadStateTable(int width, int capacity){
+        int slotCount = Integer.highestOneBit(Math.max(PROBES, capacity) * 2 - 1);
+        this.width = width;
+        this.slots = new AtomicLongArray(slotCount);
+        this.mask = slotCount - 1;
+    }
+
+    /**
+     * checks whether a state is known to be dead
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @return boolean
+     */
+    public boolean contains(long[] key, int offset){
+        long value = value(key, offset);
+        if (value == 0) {
+            return this.zero.get();
+        }
+        int slot = (int) value & this.mask;
+        for (int i = 0; i < PROBES; i++) {
+            long stored = this.slots.get((slot + i) & this.mask);
+            if (stored == value) {
+                return true;
+            }
+            if (stored == 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * records that a state is dead
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     */
+    public void add(long[] key, int offset){
+        long value = value(key, offset);
+        if (value == 0) {
+            this.zero.set(true);
+            return;
+        }
+        int slot = (int) value & this.mask;
+        for (int i = 0; i < PROBES; i++) {
+            int probe = (slot + i) & this.mask;
+            long stored = this.slots.get(probe);
+            if (stored == value) {
+                return;
+            }
+            if (stored == 0) {
+                if (this.slots.compareAndSet(probe, 0, value)) {
+                    return;
+                }
+                if (this.slots.get(probe) == value) {
+                    return;
+                }
+            }
+        }
+        this.slots.set(slot, value);
+    }
+
+    /**
+     * the value a state is stored as
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @return long
+     */
+    private long value(long[] key, int offset){
+        if (this.width == 1) {
+            return StateStore.mix(key[offset]);
+        }
+        return StateStore.hash(key, offset, this.width);
+    }
+}
@@ -0,0 +1,66 @@
+package puzzles.common.solver;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Best first search, always expands the open configuration with the lowest
+ * evaluation. Ties are broken in the order the configurations were found, so
+ * with a constant evaluation this behaves like breadth first search.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class BestFirstSearch extends AbstractSearch {
+    /** scores a configuration, lower is expanded first */
+    private final ToIntFunction<Configuration> evaluation;
+
+    /**
+     * BestFirstSearch constructor, greedily expands the configuration with the
+     * lowest {@link Configuration#heuristic()}
+     */
+    public BestFirstSearch(){
+        this(Configuration::heuristic);
+    }
+
+    /**
+     * BestFirstSearch constructor
+     * @param evaluation scores a configuration, lower is expanded first,
+     *                   never negative
+     */
+    public BestFirstSearch(ToIntFunction<Configuration> evaluation){
+        super(DEFAULT_EXPECTED_STATES);
+        this.evaluation = evaluation;
+    }
+
+    /**
+     * Uses best first search to get a path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        BucketQueue<Configuration> open = new BucketQueue<>(false);
+        Map<Configuration, Configuration> predecessors = newVisitedTable();
+        open.add(this.evaluation.applyAsInt(initialConfiguration), initialConfiguration);
+        predecessors.put(initialConfiguration, initialConfiguration);
+        while (!open.isEmpty()) {
+            Configuration current = open.poll();
+            expand();
+            if (current.isSolution()) {
+                return buildPath(predecessors, current);
+            }
+            for (Configuration nbr : current.getNeighbors()) {
+                if (predecessors.putIfAbsent(nbr, current) == null) {
+                    open.add(this.evaluation.applyAsInt(nbr), nbr);
+                } else {
+                    this.duplicates++;
+                }
+                this.generated++;
+            }
+            frontier(open.size());
+        }
+        return new LinkedList<>();
+    }
+}
@@ -0,0 +1,152 @@
+package puzzles.common.solver;
+
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Bidirectional breadth first search for {@link ReversibleConfiguration}s.
+ * One search runs forward from the initial configuration and one backward
+ * from the goal, always growing the smaller frontier by a whole layer, until
+ * they meet in the middle. For a branching factor b and solution length d
+ * this visits about 2b^(d/2) configurations instead of b^d. Configurations
+ * that cannot give their goal are solved with {@link BreadthFirstSearch}.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class BidirectionalSearch extends AbstractSearch {
+
+    /**
+     * how a configuration was reached by one of the two searches
+     * @param link the parent for the forward search, the next configuration
+     *             towards the goal for the backward search
+     * @param depth distance from the initial configuration or the goal
+     */
+    private record Link(Configuration link, int depth) {
+    }
+
+    /**
+     * BidirectionalSearch constructor
+     */
+    public BidirectionalSearch(){
+        this(DEFAULT_EXPECTED_STATES);
+    }
+
+    /**
+     * BidirectionalSearch constructor
+     * @param expectedStates number of states each visited table is sized for
+     */
+    public BidirectionalSearch(int expectedStates){
+        super(expectedStates);
+    }
+
+    /**
+     * the path returned is always a shortest one
+     * @return true
+     */
+    @Override
+    public boolean isShortest(){
+        return true;
+    }
+
+    /**
+     * Uses bidirectional BFS to get the shortest path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        Configuration goal = initialConfiguration instanceof ReversibleConfiguration reversible
+                ? reversible.getGoal() : null;
+        if (goal == null) {
+            BreadthFirstSearch bfs = new BreadthFirstSearch();
+            LinkedList<Configuration> path = bfs.search(initialConfiguration);
+            copyCounters(bfs);
+            return path;
+        }
+        expand();
+        if (initialConfiguration.isSolution()) {
+            LinkedList<Configuration> path = new LinkedList<>();
+            path.add(initialConfiguration);
+            return path;
+        }
+        Map<Configuration, Link> forward = newVisitedTable();
+        Map<Configuration, Link> backward = newVisitedTable();
+        ArrayDeque<Configuration> forwardFrontier = new ArrayDeque<>();
+        ArrayDeque<Configuration> backwardFrontier = new ArrayDeque<>();
+        forward.put(initialConfiguration, new Link(null, 0));
+        backward.put(goal, new Link(null, 0));
+        forwardFrontier.add(initialConfiguration);
+        backwardFrontier.add(goal);
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            Configuration meeting;
+            if (forwardFrontier.size() <= backwardFrontier.size()) {
+                meeting = expandLayer(forwardFrontier, forward, backward, true);
+            } else {
+                meeting = expandLayer(backwardFrontier, backward, forward, false);
+            }
+            if (meeting != null) {
+                return buildPath(forward, backward, meeting);
+            }
+            frontier(forwardFrontier.size() + backwardFrontier.size());
+        }
+        return new LinkedList<>();
+    }
+
+    /**
+     * expands every configuration in one layer of a frontier
+     * @param frontier the frontier, replaced by the next layer
+     * @param own the links of the search being expanded
+     * @param other the links of the opposite search
+     * @param forwards true to follow neighbors, false to follow predecessors
+     * @return the meeting configuration on the shortest path through this
+     *         layer, or null if the searches have not met
+     */
+    private Configuration expandLayer(ArrayDeque<Configuration> frontier, Map<Configuration, Link> own,
+                                      Map<Configuration, Link> other, boolean forwards){
+        Configuration meeting = null;
+        int shortest = Integer.MAX_VALUE;
+        for (int i = frontier.size(); i > 0; i--) {
+            Configuration current = frontier.poll();
+            expand();
+            int depth = own.get(current).depth() + 1;
+            Iterable<Configuration> next = forwards ? current.getNeighbors()
+                    : ((ReversibleConfiguration) current).getPredecessors();
+            for (Configuration nbr : next) {
+                this.generated++;
+                if (own.putIfAbsent(nbr, new Link(current, depth)) != null) {
+                    this.duplicates++;
+                    continue;
+                }
+                frontier.add(nbr);
+                Link met = other.get(nbr);
+                if (met != null && depth + met.depth() < shortest) {
+                    shortest = depth + met.depth();
+                    meeting = nbr;
+                }
+            }
+        }
+        return meeting;
+    }
+
+    /**
+     * stitches the forward path to the meeting configuration and the
+     * backward path from it to the goal
+     * @param forward the forward links
+     * @param backward the backward links
+     * @param meeting a configuration reached by both searches
+     * @return LinkedList<Configuration>
+     */
+    private static LinkedList<Configuration> buildPath(Map<Configuration, Link> forward,
+                                                       Map<Configuration, Link> backward, Configuration meeting){
+        LinkedList<Configuration> path = new LinkedList<>();
+        for (Configuration node = meeting; node != null; node = forward.get(node).link()) {
+            path.addFirst(node);
+        }
+        for (Configuration node = backward.get(meeting).link(); node != null; node = backward.get(node).link()) {
+            path.addLast(node);
+        }
+        return path;
+    }
+}
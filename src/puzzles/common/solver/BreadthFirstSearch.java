@@ -0,0 +1,74 @@
+package puzzles.common.solver;
+
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Breadth first search, returns a shortest path to the solution.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class BreadthFirstSearch extends AbstractSearch {
+
+    /**
+     * BreadthFirstSearch constructor
+     */
+    public BreadthFirstSearch(){
+        this(DEFAULT_EXPECTED_STATES);
+    }
+
+    /**
+     * BreadthFirstSearch constructor
+     * @param expectedStates number of states the visited table is sized for
+     */
+    public BreadthFirstSearch(int expectedStates){
+        super(expectedStates);
+    }
+
+    /**
+     * the path returned is always a shortest one
+     * @return true
+     */
+    @Override
+    public boolean isShortest(){
+        return true;
+    }
+
+    /**
+     * Uses BFS to get the shortest path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        ArrayDeque<Configuration> queue = new ArrayDeque<>();
+        Map<Configuration, Configuration> predecessors = newVisitedTable();
+        queue.add(initialConfiguration);
+        predecessors.put(initialConfiguration, initialConfiguration);
+        // configurations left in the layer being expanded, the queue holds exactly the next layer once it is 0
+        long layer = 1;
+        while (!queue.isEmpty()) {
+            Configuration current = queue.poll();
+            expand();
+            if (current.isSolution()) {
+                return buildPath(predecessors, current);
+            }
+            current.forEachNeighbor(nbr -> {
+                if (predecessors.putIfAbsent(nbr, current) == null) {
+                    queue.add(nbr);
+                } else {
+                    this.duplicates++;
+                }
+                this.generated++;
+            });
+            frontier(queue.size());
+            if (--layer == 0 && !queue.isEmpty()) {
+                layer = queue.size();
+                this.depth++;
+            }
+        }
+        return new LinkedList<>();
+    }
+}
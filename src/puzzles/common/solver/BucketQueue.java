@@ -0,0 +1,99 @@
+package puzzles.common.solver;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A priority queue for small non-negative integer priorities. Every priority
+ * has its own bucket, so adding and removing are constant time instead of the
+ * logarithmic cost of a binary heap.
+ *
+ * @param <E> the type of element held in the queue
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class BucketQueue<E> {
+    /** one deque per priority, created on first use */
+    private ArrayDeque<E>[] buckets;
+    /** whether equal priorities come out last in first out */
+    private final boolean lifo;
+    /** no bucket below this index holds an element */
+    private int lowest;
+    private int size;
+
+    /**
+     * BucketQueue constructor
+     * @param lifo true to return the most recently added element among
+     *             equal priorities, false to return the oldest
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BucketQueue(boolean lifo){
+        this.buckets = new ArrayDeque[64];
+        this.lifo = lifo;
+    }
+
+    /**
+     * adds an element
+     * @param priority int, lower comes out first
+     * @param element E
+     */
+    public void add(int priority, E element){
+        if (priority < 0) {
+            throw new IllegalArgumentException("Negative priority: " + priority);
+        }
+        if (priority >= this.buckets.length) {
+            this.buckets = Arrays.copyOf(this.buckets, Math.max(priority + 1, this.buckets.length * 2));
+        }
+        if (this.buckets[priority] == null) {
+            this.buckets[priority] = new ArrayDeque<>();
+        }
+        this.buckets[priority].addLast(element);
+        if (this.size == 0 || priority < this.lowest) {
+            this.lowest = priority;
+        }
+        this.size++;
+    }
+
+    /**
+     * priority of the element poll would return
+     * @return int, or -1 if the queue is empty
+     */
+    public int peekPriority(){
+        if (this.size == 0) {
+            return -1;
+        }
+        while (this.buckets[this.lowest] == null || this.buckets[this.lowest].isEmpty()) {
+            this.lowest++;
+        }
+        return this.lowest;
+    }
+
+    /**
+     * removes an element with the lowest priority
+     * @return E, or null if the queue is empty
+     */
+    public E poll(){
+        if (peekPriority() < 0) {
+            return null;
+        }
+        this.size--;
+        ArrayDeque<E> bucket = this.buckets[this.lowest];
+        return this.lifo ? bucket.pollLast() : bucket.pollFirst();
+    }
+
+    /**
+     * checks if the queue is empty
+     * @return boolean
+     */
+    public boolean isEmpty(){
+        return this.size == 0;
+    }
+
+    /**
+     * getter for size
+     * @return int
+     */
+    public int size(){
+        return this.size;
+    }
+}
@@ -0,0 +1,279 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * Breadth first search over encoded states. Visited states and their parents
+ * live in a {@link StateStore}, on the heap in a {@link StateTable} by default
+ * or off the heap in a {@link MappedStateStore}. Since states are added in
+ * breadth first order the store itself is the queue. Only the configuration being expanded and
+ * the ones on the winning path are ever decoded. Configurations that are not
+ * {@link EncodableConfiguration}s are solved with {@link BreadthFirstSearch}.
+ * <p>
+ * States of a {@link SymmetricConfiguration} are stored by their canonical
+ * encoding, so rotations and reflections of a board are only visited once.
+ * The stored path then is a chain of canonical states, which is turned back
+ * into real moves by replaying it from the initial configuration.
+ * <p>
+ * A {@link MoveConfiguration} is expanded by applying and taking back its
+ * moves on one reused configuration, so no objects are built while
+ * searching. Each state stores its parent index and the move from the
+ * parent, and the path is rebuilt by replaying those moves from the
+ * initial configuration.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class CompactBreadthFirstSearch extends AbstractSearch {
+    /** number of states the table is sized for */
+    private final int expectedStates;
+    /** creates the store for each search */
+    private final StateStore.Factory stores;
+    /** whether symmetric states are stored once */
+    private final boolean symmetry;
+
+    /**
+     * CompactBreadthFirstSearch constructor
+     */
+    public CompactBreadthFirstSearch(){
+        this(DEFAULT_EXPECTED_STATES);
+    }
+
+    /**
+     * CompactBreadthFirstSearch constructor
+     * @param expectedStates number of states the table is sized for
+     */
+    public CompactBreadthFirstSearch(int expectedStates){
+        this(expectedStates, width -> new StateTable(width, expectedStates));
+    }
+
+    /**
+     * CompactBreadthFirstSearch constructor
+     * @param expectedStates number of states the fallback search is sized for
+     * @param stores creates the store for each search
+     */
+    public CompactBreadthFirstSearch(int expectedStates, StateStore.Factory stores){
+        this(expectedStates, stores, true);
+    }
+
+    /**
+     * CompactBreadthFirstSearch constructor
+     * @param expectedStates number of states the fallback search is sized for
+     * @param stores creates the store for each search
+     * @param symmetry whether symmetric states are stored once
+     */
+    public CompactBreadthFirstSearch(int expectedStates, StateStore.Factory stores, boolean symmetry){
+        super(expectedStates);
+        this.expectedStates = expectedStates;
+        this.stores = stores;
+        this.symmetry = symmetry;
+    }
+
+    /**
+     * the path returned is always a shortest one
+     * @return true
+     */
+    @Override
+    public boolean isShortest(){
+        return true;
+    }
+
+    /**
+     * Uses BFS over encoded states to get the shortest path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        if (!(initialConfiguration instanceof EncodableConfiguration initial)) {
+            BreadthFirstSearch bfs = new BreadthFirstSearch(this.expectedStates);
+            LinkedList<Configuration> path = bfs.search(initialConfiguration);
+            copyCounters(bfs);
+            return path;
+        }
+        boolean canonical = this.symmetry && initial instanceof SymmetricConfiguration;
+        long[] words = new long[initial.encodedWords()];
+        try (StateStore table = this.stores.create(words.length)) {
+            encode(initial, canonical, words);
+            table.add(words, 0, StateStore.NO_PARENT);
+            if (initial instanceof MoveConfiguration moves) {
+                int solution = searchMoves(moves.copy(), canonical, table, words);
+                if (solution == StateStore.NO_PARENT) {
+                    return new LinkedList<>();
+                }
+                return canonical ? replayPath(initial, table, solution, words) : replayMoves(moves, table, solution);
+            }
+            // index of the first state of the next layer
+            int layerEnd = 1;
+            for (int head = 0; head < table.size(); head++) {
+                if (head == layerEnd) {
+                    layerEnd = table.size();
+                    this.depth++;
+                }
+                Configuration current = decode(initial, table, head, words);
+                expand();
+                if (current.isSolution()) {
+                    return canonical ? replayPath(initial, table, head, words) : buildPath(initial, table, head, words);
+                }
+                for (Configuration nbr : current.getNeighbors()) {
+                    encode((EncodableConfiguration) nbr, canonical, words);
+                    if (table.add(words, 0, head) < 0) {
+                        this.duplicates++;
+                    }
+                    this.generated++;
+                }
+                frontier(table.size() - head - 1);
+            }
+        }
+        return new LinkedList<>();
+    }
+
+    /**
+     * the breadth first loop for configurations with moves. One working
+     * configuration is loaded from each stored state, and every move is
+     * applied, encoded, offered to the table and taken back, so nothing is
+     * allocated per state or per neighbor.
+     * @param work the working configuration, overwritten
+     * @param canonical whether to use the canonical encoding
+     * @param table the visited states, holding the initial state
+     * @param words scratch space for one key
+     * @return index of the solution, or NO_PARENT if there is none
+     */
+    private int searchMoves(MoveConfiguration work, boolean canonical, StateStore table, long[] words){
+        int[] moves = new int[work.maxMoves()];
+        // index of the first state of the next layer
+        int layerEnd = 1;
+        for (int head = 0; head < table.size(); head++) {
+            if (head == layerEnd) {
+                layerEnd = table.size();
+                this.depth++;
+            }
+            table.get(head, words, 0);
+            work.load(words, 0);
+            expand();
+            if (work.isSolution()) {
+                return head;
+            }
+            int count = work.generateMoves(moves);
+            for (int i = 0; i < count; i++) {
+                work.makeMove(moves[i]);
+                encode(work, canonical, words);
+                if (table.add(words, 0, head, moves[i]) < 0) {
+                    this.duplicates++;
+                }
+                work.unmakeMove(moves[i]);
+                this.generated++;
+            }
+            frontier(table.size() - head - 1);
+        }
+        return StateStore.NO_PARENT;
+    }
+
+    /**
+     * encodes a configuration into words, canonically when symmetric states
+     * are stored once
+     * @param config the configuration to encode
+     * @param canonical whether to use the canonical encoding
+     * @param words where the encoding is written
+     */
+    private static void encode(EncodableConfiguration config, boolean canonical, long[] words){
+        if (canonical) {
+            ((SymmetricConfiguration) config).encodeCanonical(words, 0);
+        } else {
+            config.encode(words, 0);
+        }
+    }
+
+    /**
+     * rebuilds the configuration stored at an index
+     * @param initial the initial configuration, stored at index 0
+     * @param table the visited states
+     * @param index the index to decode
+     * @param words scratch space for one key
+     * @return Configuration
+     */
+    private static Configuration decode(EncodableConfiguration initial, StateStore table, int index, long[] words){
+        if (index == 0) {
+            return initial;
+        }
+        table.get(index, words, 0);
+        return initial.decode(words, 0);
+    }
+
+    /**
+     * decodes the states from the initial configuration to the solution
+     * @param initial the initial configuration
+     * @param table the visited states
+     * @param solution index of the solution
+     * @param words scratch space for one key
+     * @return LinkedList<Configuration>
+     */
+    private static LinkedList<Configuration> buildPath(EncodableConfiguration initial, StateStore table,
+                                                       int solution, long[] words){
+        LinkedList<Configuration> path = new LinkedList<>();
+        for (int index = solution; index != StateStore.NO_PARENT; index = table.parent(index)) {
+            path.addFirst(decode(initial, table, index, words));
+        }
+        return path;
+    }
+
+    /**
+     * turns a chain of canonical states into real configurations. Each step
+     * picks the neighbor of the previous real configuration whose canonical
+     * encoding is the next state of the chain, which exists because
+     * symmetric configurations have symmetric neighbors.
+     * @param initial the initial configuration
+     * @param table the visited states
+     * @param solution index of the solution
+     * @param words scratch space for one key
+     * @return LinkedList<Configuration>
+     */
+    private static LinkedList<Configuration> replayPath(EncodableConfiguration initial, StateStore table,
+                                                        int solution, long[] words){
+        LinkedList<Integer> chain = new LinkedList<>();
+        for (int index = solution; index != StateStore.NO_PARENT; index = table.parent(index)) {
+            chain.addFirst(index);
+        }
+        long[] target = new long[words.length];
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration current = initial;
+        path.add(current);
+        for (int index : chain.subList(1, chain.size())) {
+            table.get(index, target, 0);
+            for (Configuration nbr : current.getNeighbors()) {
+                ((SymmetricConfiguration) nbr).encodeCanonical(words, 0);
+                if (Arrays.equals(words, target)) {
+                    current = nbr;
+                    break;
+                }
+            }
+            path.add(current);
+        }
+        return path;
+    }
+
+    /**
+     * rebuilds the path by replaying the stored moves from the initial
+     * configuration, nothing but the initial configuration is decoded
+     * @param initial the initial configuration
+     * @param table the visited states
+     * @param solution index of the solution
+     * @return LinkedList<Configuration>
+     */
+    private static LinkedList<Configuration> replayMoves(MoveConfiguration initial, StateStore table, int solution){
+        LinkedList<Integer> moves = new LinkedList<>();
+        for (int index = solution; table.parent(index) != StateStore.NO_PARENT; index = table.parent(index)) {
+            moves.addFirst(table.move(index));
+        }
+        LinkedList<Configuration> path = new LinkedList<>();
+        MoveConfiguration current = initial;
+        path.add(current);
+        for (int move : moves) {
+            current = current.copy();
+            current.makeMove(move);
+            path.add(current);
+        }
+        return path;
+    }
+}
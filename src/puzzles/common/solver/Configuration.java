@@ -1,6 +1,7 @@
 package puzzles.common.solver;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface Configuration {
     boolean isSolution();
@@ -8,4 +9,24 @@ public interface Configuration {
     boolean equals(Object other);
     int hashCode();
     String toString();
+
+    /**
+     * estimate of the number of moves still needed to reach a solution, used
+     * by the informed strategies. A* only returns a shortest path if this
+     * never overestimates and drops by at most one per move.
+     * @return int, never negative
+     */
+    default int heuristic(){
+        return 0;
+    }
+
+    /**
+     * hands every neighbor to the action one at a time, without collecting
+     * them. Puzzles that can build neighbors more cheaply than a full
+     * collection override this.
+     * @param action called once per neighbor
+     */
+    default void forEachNeighbor(Consumer<Configuration> action){
+        getNeighbors().forEach(action);
+    }
 }
@@ -0,0 +1,79 @@
+package puzzles.common.solver;
+
+/**
+ * A bounded set of encoded states that are known to have no solution. The
+ * table has a fixed number of slots in pairs; a state may go in either slot
+ * of the pair its hash picks, and when both are taken the second one is
+ * overwritten. Whole keys are stored and compared, so a state is never
+ * wrongly reported dead, only forgotten.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class DeadStateTable {
+    /** number of words per key */
+    private final int width;
+    /** the keys of the slots, width words each */
+    private final long[] keys;
+    /** whether each slot holds a key */
+    private final boolean[] used;
+    /** mask that picks a pair of slots from a hash */
+    private final int mask;
+
+    /**
+     * DeadStateTable constructor
+     * @param width number of words per key
+     * @param capacity most states kept, rounded up to a power of two
+     */
+    public DeadStateTable(int width, int capacity){
+        int slots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.width = width;
+        this.keys = new long[slots * width];
+        this.used = new boolean[slots];
+        this.mask = slots - 2;
+    }
+
+    /**
+     * checks whether a state is known to be dead
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @return boolean
+     */
+    public boolean contains(long[] key, int offset){
+        int slot = (int) StateStore.hash(key, offset, this.width) & this.mask;
+        return matches(slot, key, offset) || matches(slot + 1, key, offset);
+    }
+
+    /**
+     * records that a state is dead
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     */
+    public void add(long[] key, int offset){
+        int slot = (int) StateStore.hash(key, offset, this.width) & this.mask;
+        if (this.used[slot] && !matches(slot, key, offset)) {
+            slot++;
+        }
+        System.arraycopy(key, offset, this.keys, slot * this.width, this.width);
+        this.used[slot] = true;
+    }
+
+    /**
+     * compares the key in a slot with the given words
+     * @param slot int
+     * @param key the words to compare with
+     * @param offset index of the first word to compare
+     * @return boolean
+     */
+    private boolean matches(int slot, long[] key, int offset){
+        if (!this.used[slot]) {
+            return false;
+        }
+        int start = slot * this.width;
+        for (int i = 0; i < this.width; i++) {
+            if (this.keys[start + i] != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
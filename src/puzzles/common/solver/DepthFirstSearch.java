@@ -0,0 +1,61 @@
+package puzzles.common.solver;
+
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Depth first search over an explicit stack. Finds a solution quickly on
+ * puzzles where every solution has the same length, but the path it returns
+ * is not necessarily the shortest.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class DepthFirstSearch extends AbstractSearch {
+
+    /**
+     * DepthFirstSearch constructor
+     */
+    public DepthFirstSearch(){
+        this(DEFAULT_EXPECTED_STATES);
+    }
+
+    /**
+     * DepthFirstSearch constructor
+     * @param expectedStates number of states the visited table is sized for
+     */
+    public DepthFirstSearch(int expectedStates){
+        super(expectedStates);
+    }
+
+    /**
+     * Uses DFS to get a path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        ArrayDeque<Configuration> stack = new ArrayDeque<>();
+        Map<Configuration, Configuration> predecessors = newVisitedTable();
+        stack.push(initialConfiguration);
+        predecessors.put(initialConfiguration, initialConfiguration);
+        while (!stack.isEmpty()) {
+            Configuration current = stack.pop();
+            expand();
+            if (current.isSolution()) {
+                return buildPath(predecessors, current);
+            }
+            for (Configuration nbr : current.getNeighbors()) {
+                if (predecessors.putIfAbsent(nbr, current) == null) {
+                    stack.push(nbr);
+                } else {
+                    this.duplicates++;
+                }
+                this.generated++;
+            }
+            frontier(stack.size());
+        }
+        return new LinkedList<>();
+    }
+}
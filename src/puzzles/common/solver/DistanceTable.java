@@ -0,0 +1,209 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * The distance to the nearest solution of every configuration reachable
+ * from a puzzle's start, and the best move from each, worked out once so
+ * hints and "is this still solvable" become lookups. The pass explores the
+ * whole reachable state space breadth first, keeping the states as encoded
+ * keys in a {@link StateTable} and the moves between them as index lists,
+ * then sweeps the states backwards, setting each one to one more than its
+ * closest neighbor, until nothing changes. For puzzles that remove a piece
+ * per move every move goes one layer deeper, so one sweep is enough.
+ * <p>
+ * The pass can run on a background thread. It gives up when the table would
+ * take more than its memory cap, and until it has finished, or after it
+ * gave up, every lookup answers {@link #UNKNOWN} so the caller can fall back
+ * to searching on demand.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class DistanceTable {
+    /** answer for a configuration the table has nothing on */
+    public static final int UNKNOWN = -2;
+    /** distance of a configuration no solution can be reached from */
+    public static final int UNSOLVABLE = -1;
+    /** default memory cap, in bytes */
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    /** estimated bytes per state besides the key: parent, move, hash slots, distance and best neighbor */
+    private static final int STATE_BYTES = 4 + 4 + 8 + 4 + 4;
+
+    /** the table may take up to this many bytes */
+    private final long maxBytes;
+    /** set by cancel, checked once per state */
+    private volatile boolean cancelled;
+    /** set once the table is filled in, after every other field */
+    private volatile boolean complete;
+
+    private StateTable states;
+    /** the distance of every state, by index */
+    private int[] distances;
+    /** the index of the neighbor one move closer to a solution, -1 when there is none */
+    private int[] best;
+
+    /**
+     * DistanceTable constructor
+     */
+    public DistanceTable(){
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * DistanceTable constructor
+     * @param maxBytes the most memory the table may take, the pass gives up
+     *                 beyond it
+     */
+    public DistanceTable(long maxBytes){
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * runs the pass on a daemon thread
+     * @param initial the start of the puzzle, not changed by the pass
+     * @return Thread the thread running the pass
+     */
+    public Thread start(EncodableConfiguration initial){
+        Thread worker = new Thread(() -> build(initial), "distance-table");
+        worker.setDaemon(true);
+        worker.start();
+        return worker;
+    }
+
+    /**
+     * runs the pass on this thread
+     * @param initial the start of the puzzle, not changed by the pass
+     * @return boolean true if the table was filled in, false if it was
+     *         cancelled or went over its memory cap
+     */
+    public boolean build(EncodableConfiguration initial){
+        int width = initial.encodedWords();
+        long bytesPerState = 8L * width + STATE_BYTES;
+        long[] words = new long[width];
+        StateTable table = new StateTable(width, AbstractSearch.DEFAULT_EXPECTED_STATES);
+        boolean[] solutions = new boolean[AbstractSearch.DEFAULT_EXPECTED_STATES];
+        // the neighbors of state i are edges[edgeStart[i]] up to edges[edgeStart[i + 1]]
+        int[] edgeStart = new int[AbstractSearch.DEFAULT_EXPECTED_STATES + 1];
+        int[][] edges = {new int[AbstractSearch.DEFAULT_EXPECTED_STATES]};
+        int[] edgeCount = {0};
+        initial.encode(words, 0);
+        table.add(words, 0, StateStore.NO_PARENT);
+        for (int head = 0; head < table.size(); head++) {
+            if (this.cancelled || table.size() * bytesPerState + 4L * edgeCount[0] > this.maxBytes) {
+                return false;
+            }
+            table.get(head, words, 0);
+            Configuration current = initial.decode(words, 0);
+            if (head == solutions.length) {
+                solutions = Arrays.copyOf(solutions, head * 2);
+                edgeStart = Arrays.copyOf(edgeStart, head * 2 + 1);
+            }
+            solutions[head] = current.isSolution();
+            edgeStart[head] = edgeCount[0];
+            int parent = head;
+            current.forEachNeighbor(nbr -> {
+                ((EncodableConfiguration) nbr).encode(words, 0);
+                int index = table.add(words, 0, parent);
+                if (index < 0) {
+                    index = table.indexOf(words, 0);
+                }
+                if (edgeCount[0] == edges[0].length) {
+                    edges[0] = Arrays.copyOf(edges[0], edgeCount[0] * 2);
+                }
+                edges[0][edgeCount[0]++] = index;
+            });
+        }
+        int size = table.size();
+        edgeStart[size] = edgeCount[0];
+        int[] distances = new int[size];
+        int[] best = new int[size];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < size; i++) {
+            distances[i] = solutions[i] ? 0 : UNSOLVABLE;
+        }
+        boolean changed = true;
+        while (changed) {
+            if (this.cancelled) {
+                return false;
+            }
+            changed = false;
+            // later states are deeper, so going backwards settles most of them in one sweep
+            for (int i = size - 1; i >= 0; i--) {
+                if (distances[i] == 0) {
+                    continue;
+                }
+                for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                    int nbr = edges[0][e];
+                    if (distances[nbr] >= 0 && (distances[i] < 0 || distances[nbr] + 1 < distances[i])) {
+                        distances[i] = distances[nbr] + 1;
+                        best[i] = nbr;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        this.states = table;
+        this.distances = distances;
+        this.best = best;
+        this.complete = true;
+        return true;
+    }
+
+    /**
+     * stops the pass, for when the puzzle it works on is no longer needed
+     */
+    public void cancel(){
+        this.cancelled = true;
+    }
+
+    /**
+     * checks if the pass has finished, until then every lookup is UNKNOWN
+     * @return boolean
+     */
+    public boolean isComplete(){
+        return this.complete;
+    }
+
+    /**
+     * looks up the distance of a configuration to the nearest solution
+     * @param configuration the configuration
+     * @return int, the number of moves, UNSOLVABLE, or UNKNOWN if the table
+     *         is not finished or does not hold the configuration
+     */
+    public int distance(Configuration configuration){
+        int index = indexOf(configuration);
+        return index < 0 ? UNKNOWN : this.distances[index];
+    }
+
+    /**
+     * looks up the configuration one move closer to the nearest solution
+     * @param configuration the configuration
+     * @return Configuration, a new configuration, or null if the
+     *         configuration is a solution, has none or is not in the table
+     */
+    public Configuration next(Configuration configuration){
+        int index = indexOf(configuration);
+        if (index < 0 || this.best[index] < 0) {
+            return null;
+        }
+        long[] words = new long[this.states.width()];
+        this.states.get(this.best[index], words, 0);
+        return ((EncodableConfiguration) configuration).decode(words, 0);
+    }
+
+    /**
+     * finds the index of a configuration in the finished table
+     * @param configuration the configuration
+     * @return int, or -1 if the table is not finished or does not hold it
+     */
+    private int indexOf(Configuration configuration){
+        if (!this.complete || !(configuration instanceof EncodableConfiguration encodable)
+                || encodable.encodedWords() != this.states.width()) {
+            return -1;
+        }
+        long[] words = new long[this.states.width()];
+        encodable.encode(words, 0);
+        return this.states.indexOf(words, 0);
+    }
+}
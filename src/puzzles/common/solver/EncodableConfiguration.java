@@ -0,0 +1,33 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration that can be packed into a fixed number of 64 bit words and
+ * rebuilt from them. Every configuration of one puzzle uses the same number
+ * of words, which lets the compact strategies keep visited states in
+ * primitive tables instead of as objects.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public interface EncodableConfiguration extends Configuration {
+
+    /**
+     * number of words every configuration of this puzzle encodes to
+     * @return int
+     */
+    int encodedWords();
+
+    /**
+     * packs this configuration, equal configurations give equal words
+     * @param words where the encoding is written
+     * @param offset index of the first word to write
+     */
+    void encode(long[] words, int offset);
+
+    /**
+     * rebuilds a configuration of the same puzzle from its encoding
+     * @param words where the encoding is read from
+     * @param offset index of the first word to read
+     * @return Configuration
+     */
+    Configuration decode(long[] words, int offset);
+}
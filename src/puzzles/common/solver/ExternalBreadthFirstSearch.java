@@ -0,0 +1,488 @@
+package puzzles.common.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Breadth first search for state spaces bigger than memory, with delayed
+ * duplicate detection. Each layer is a sorted file of encoded states. While a
+ * layer is expanded its children are buffered with their parents, sorted and
+ * written out in runs; the runs are then merged, duplicates dropped and
+ * states already in the previous two layers removed, giving the next layer.
+ * Two layers back is enough for puzzles whose moves can be undone; puzzles
+ * whose moves cannot be undone never come back to an earlier layer at all.
+ * <p>
+ * Every new state is appended with its parent to a parent log, one segment
+ * per layer, which is read backwards from the solution to rebuild the path.
+ * Only the sort buffer is held in memory. Configurations that are not
+ * {@link EncodableConfiguration}s are solved with {@link BreadthFirstSearch}.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class ExternalBreadthFirstSearch extends AbstractSearch {
+    /** where the layer, run and log files are created */
+    private final Path directory;
+    /** number of child and parent pairs sorted in memory at once */
+    private final int bufferRecords;
+
+    /**
+     * ExternalBreadthFirstSearch constructor
+     * @param directory where the layer, run and log files are created
+     * @param bufferRecords number of states sorted in memory at once
+     */
+    public ExternalBreadthFirstSearch(Path directory, int bufferRecords){
+        super(DEFAULT_EXPECTED_STATES);
+        this.directory = directory;
+        this.bufferRecords = Math.max(16, bufferRecords);
+    }
+
+    /**
+     * the path returned is always a shortest one
+     * @return true
+     */
+    @Override
+    public boolean isShortest(){
+        return true;
+    }
+
+    /**
+     * Uses external memory BFS to get the shortest path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        if (!(initialConfiguration instanceof EncodableConfiguration initial)) {
+            BreadthFirstSearch bfs = new BreadthFirstSearch();
+            LinkedList<Configuration> path = bfs.search(initialConfiguration);
+            copyCounters(bfs);
+            return path;
+        }
+        Path work = null;
+        try {
+            Files.createDirectories(this.directory);
+            work = Files.createTempDirectory(this.directory, "external-bfs-");
+            return search(initial, work);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (work != null) {
+                delete(work);
+            }
+        }
+    }
+
+    /**
+     * runs the search with its files in the given directory
+     * @param initial the configuration to start from
+     * @param work an empty directory for the search's files
+     * @return LinkedList<Configuration>
+     * @throws IOException if a file cannot be read or written
+     */
+    private LinkedList<Configuration> search(EncodableConfiguration initial, Path work) throws IOException {
+        int width = initial.encodedWords();
+        long[] key = new long[width];
+        initial.encode(key, 0);
+        Path parentLog = work.resolve("parents.log");
+        // number of records the parent log holds before each layer
+        List<Long> logStarts = new ArrayList<>();
+        logStarts.add(0L);
+        long logSize = 0;
+        Path previous = null;
+        Path current = work.resolve("layer-0.bin");
+        try (RecordWriter writer = new RecordWriter(current, width)) {
+            writer.write(key, 0);
+        }
+        // the solution and its depth, built into a path once the parent log is closed
+        long[] solution = null;
+        int solutionDepth = 0;
+        try (RecordWriter log = new RecordWriter(parentLog, 2 * width)) {
+            layers:
+            for (int depth = 0; ; depth++) {
+                long[] buffer = new long[this.bufferRecords * 2 * width];
+                List<Path> runs = new ArrayList<>();
+                int buffered = 0;
+                try (RecordReader layer = new RecordReader(current, width)) {
+                    while (layer.next()) {
+                        Configuration state = depth == 0 ? initial : initial.decode(layer.record(), 0);
+                        expand();
+                        reached(depth);
+                        if (state.isSolution()) {
+                            solution = layer.record().clone();
+                            solutionDepth = depth;
+                            break layers;
+                        }
+                        for (Configuration nbr : state.getNeighbors()) {
+                            this.generated++;
+                            int at = buffered * 2 * width;
+                            ((EncodableConfiguration) nbr).encode(buffer, at);
+                            System.arraycopy(layer.record(), 0, buffer, at + width, width);
+                            if (++buffered == this.bufferRecords) {
+                                runs.add(writeRun(work, runs.size(), buffer, buffered, width));
+                                buffered = 0;
+                            }
+                        }
+                    }
+                }
+                if (buffered > 0) {
+                    runs.add(writeRun(work, runs.size(), buffer, buffered, width));
+                }
+                buffer = null;
+                Path next = work.resolve("layer-" + (depth + 1) + ".bin");
+                long added = mergeRuns(runs, width, current, previous, next, log);
+                for (Path run : runs) {
+                    Files.delete(run);
+                }
+                if (previous != null) {
+                    Files.delete(previous);
+                }
+                logSize += added;
+                logStarts.add(logSize);
+                // every neighbor generated so far that did not make it into a layer was seen before
+                this.duplicates = this.generated - logSize;
+                frontier(added);
+                if (added == 0) {
+                    return new LinkedList<>();
+                }
+                previous = current;
+                current = next;
+            }
+        }
+        return buildPath(initial, parentLog, logStarts, solutionDepth, solution);
+    }
+
+    /**
+     * sorts buffered child and parent pairs by child and writes them to a run file
+     * @param work the search's directory
+     * @param number number of the run
+     * @param buffer the pairs, child words first
+     * @param records number of pairs in the buffer
+     * @param width number of words per state
+     * @return the run file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path writeRun(Path work, int number, long[] buffer, int records, int width) throws IOException {
+        sort(buffer, 0, records - 1, 2 * width, width);
+        Path run = work.resolve("run-" + number + ".bin");
+        try (RecordWriter writer = new RecordWriter(run, 2 * width)) {
+            for (int i = 0; i < records; i++) {
+                writer.write(buffer, i * 2 * width);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * merges the sorted runs into the next layer, keeping one pair per child
+     * and skipping children in the current or previous layer
+     * @param runs the sorted run files
+     * @param width number of words per state
+     * @param current the layer that was expanded
+     * @param previous the layer before it, or null
+     * @param next where the next layer is written
+     * @param log the parent log the new pairs are appended to
+     * @return number of states in the next layer
+     * @throws IOException if a file cannot be read or written
+     */
+    private static long mergeRuns(List<Path> runs, int width, Path current, Path previous, Path next,
+                                  RecordWriter log) throws IOException {
+        Comparator<RecordReader> byRecord = (a, b) -> compare(a.record(), 0, b.record(), 0, width);
+        PriorityQueue<RecordReader> heads = new PriorityQueue<>(byRecord);
+        List<RecordReader> readers = new ArrayList<>();
+        long added = 0;
+        try (RecordReader currentLayer = new RecordReader(current, width);
+             RecordReader previousLayer = previous == null ? null : new RecordReader(previous, width);
+             RecordWriter writer = new RecordWriter(next, width)) {
+            for (Path run : runs) {
+                RecordReader reader = new RecordReader(run, 2 * width);
+                readers.add(reader);
+                if (reader.next()) {
+                    heads.add(reader);
+                }
+            }
+            boolean currentLeft = currentLayer.next();
+            boolean previousLeft = previousLayer != null && previousLayer.next();
+            long[] last = null;
+            while (!heads.isEmpty()) {
+                RecordReader head = heads.poll();
+                long[] pair = head.record().clone();
+                if (head.next()) {
+                    heads.add(head);
+                }
+                if (last != null && compare(last, 0, pair, 0, width) == 0) {
+                    continue;
+                }
+                last = pair;
+                while (currentLeft && compare(currentLayer.record(), 0, pair, 0, width) < 0) {
+                    currentLeft = currentLayer.next();
+                }
+                while (previousLeft && compare(previousLayer.record(), 0, pair, 0, width) < 0) {
+                    previousLeft = previousLayer.next();
+                }
+                if ((currentLeft && compare(currentLayer.record(), 0, pair, 0, width) == 0)
+                        || (previousLeft && compare(previousLayer.record(), 0, pair, 0, width) == 0)) {
+                    continue;
+                }
+                writer.write(pair, 0);
+                log.write(pair, 0);
+                added++;
+            }
+        } finally {
+            for (RecordReader reader : readers) {
+                reader.close();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * reads the parent log backwards from the solution to the initial configuration
+     * @param initial the initial configuration
+     * @param parentLog the parent log
+     * @param logStarts number of pairs in the log before each layer
+     * @param depth the layer of the solution
+     * @param solution the encoded solution
+     * @return LinkedList<Configuration>
+     * @throws IOException if the log cannot be read
+     */
+    private static LinkedList<Configuration> buildPath(EncodableConfiguration initial, Path parentLog,
+                                                       List<Long> logStarts, int depth, long[] solution)
+            throws IOException {
+        int width = solution.length;
+        LinkedList<Configuration> path = new LinkedList<>();
+        long[] key = solution.clone();
+        for (int layer = depth; layer > 0; layer--) {
+            path.addFirst(initial.decode(key, 0));
+            try (RecordReader log = new RecordReader(parentLog, 2 * width)) {
+                log.skip(logStarts.get(layer - 1));
+                long remaining = logStarts.get(layer) - logStarts.get(layer - 1);
+                while (remaining-- > 0 && log.next()) {
+                    if (compare(log.record(), 0, key, 0, width) == 0) {
+                        System.arraycopy(log.record(), width, key, 0, width);
+                        break;
+                    }
+                }
+            }
+        }
+        path.addFirst(initial);
+        return path;
+    }
+
+    /**
+     * compares two states word by word
+     * @param a words of the first state
+     * @param aOffset index of its first word
+     * @param b words of the second state
+     * @param bOffset index of its first word
+     * @param width number of words per state
+     * @return negative, zero or positive like a Comparator
+     */
+    private static int compare(long[] a, int aOffset, long[] b, int bOffset, int width){
+        for (int i = 0; i < width; i++) {
+            int result = Long.compare(a[aOffset + i], b[bOffset + i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * quicksorts fixed size records in place by their first keyWidth words.
+     * Each pass splits the records into those below, equal to and above the
+     * pivot, so the runs full of duplicates delayed duplicate detection makes
+     * do not take quadratic time.
+     * @param records the records
+     * @param low index of the first record to sort
+     * @param high index of the last record to sort
+     * @param recordWidth number of words per record
+     * @param keyWidth number of words compared
+     */
+    private static void sort(long[] records, int low, int high, int recordWidth, int keyWidth){
+        sort(records, low, high, recordWidth, keyWidth, new long[keyWidth]);
+    }
+
+    /**
+     * quicksorts fixed size records in place by their first keyWidth words
+     * @param records the records
+     * @param low index of the first record to sort
+     * @param high index of the last record to sort
+     * @param recordWidth number of words per record
+     * @param keyWidth number of words compared
+     * @param pivot scratch space for the key of the pivot
+     */
+    private static void sort(long[] records, int low, int high, int recordWidth, int keyWidth, long[] pivot){
+        while (low < high) {
+            System.arraycopy(records, ((low + high) >>> 1) * recordWidth, pivot, 0, keyWidth);
+            // [low, less) is below the pivot, [less, i) equal to it and (greater, high] above it
+            int less = low;
+            int greater = high;
+            int i = low;
+            while (i <= greater) {
+                int result = compare(records, i * recordWidth, pivot, 0, keyWidth);
+                if (result < 0) {
+                    swap(records, less++, i++, recordWidth);
+                } else if (result > 0) {
+                    swap(records, i, greater--, recordWidth);
+                } else {
+                    i++;
+                }
+            }
+            // recurse into the smaller side so the stack stays logarithmic
+            if (less - low < high - greater) {
+                sort(records, low, less - 1, recordWidth, keyWidth, pivot);
+                low = greater + 1;
+            } else {
+                sort(records, greater + 1, high, recordWidth, keyWidth, pivot);
+                high = less - 1;
+            }
+        }
+    }
+
+    /**
+     * swaps two records
+     * @param records the records
+     * @param i index of the first record
+     * @param j index of the second record
+     * @param recordWidth number of words per record
+     */
+    private static void swap(long[] records, int i, int j, int recordWidth){
+        if (i == j) {
+            return;
+        }
+        for (int k = 0; k < recordWidth; k++) {
+            long word = records[i * recordWidth + k];
+            records[i * recordWidth + k] = records[j * recordWidth + k];
+            records[j * recordWidth + k] = word;
+        }
+    }
+
+    /**
+     * deletes a directory and everything in it
+     * @param directory Path
+     */
+    private static void delete(Path directory){
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * reads fixed size records of words from a file, one at a time
+     */
+    private static final class RecordReader implements AutoCloseable {
+        private final DataInputStream in;
+        private final long[] record;
+
+        /**
+         * RecordReader constructor
+         * @param file the file to read
+         * @param width number of words per record
+         * @throws IOException if the file cannot be opened
+         */
+        RecordReader(Path file, int width) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+            this.record = new long[width];
+        }
+
+        /**
+         * reads the next record
+         * @return false at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+        boolean next() throws IOException {
+            try {
+                for (int i = 0; i < this.record.length; i++) {
+                    this.record[i] = this.in.readLong();
+                }
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        /**
+         * skips whole records
+         * @param records number of records to skip
+         * @throws IOException if the file cannot be read
+         */
+        void skip(long records) throws IOException {
+            long bytes = records * this.record.length * Long.BYTES;
+            while (bytes > 0) {
+                long skipped = this.in.skip(bytes);
+                if (skipped <= 0) {
+                    break;
+                }
+                bytes -= skipped;
+            }
+        }
+
+        /**
+         * the record read by the last call to next
+         * @return long[]
+         */
+        long[] record(){
+            return this.record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+    /**
+     * appends fixed size records of words to a file
+     */
+    private static final class RecordWriter implements AutoCloseable {
+        private final DataOutputStream out;
+        private final int width;
+
+        /**
+         * RecordWriter constructor
+         * @param file the file to write
+         * @param width number of words per record
+         * @throws IOException if the file cannot be created
+         */
+        RecordWriter(Path file, int width) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            this.width = width;
+        }
+
+        /**
+         * writes one record
+         * @param words where the record is read from
+         * @param offset index of its first word
+         * @throws IOException if the file cannot be written
+         */
+        void write(long[] words, int offset) throws IOException {
+            for (int i = 0; i < this.width; i++) {
+                this.out.writeLong(words[offset + i]);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.out.close();
+        }
+    }
+}
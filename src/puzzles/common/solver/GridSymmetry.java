@@ -0,0 +1,129 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rotations and reflections of a rectangular grid, written as permutations
+ * of the row-major cell indexes: {@code permutation[cell]} is the cell whose
+ * contents end up in {@code cell}. The identity always comes first.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public final class GridSymmetry {
+
+    /**
+     * no instances, only static helpers
+     */
+    private GridSymmetry(){
+    }
+
+    /**
+     * the buffers encodeMin works in. A puzzle keeps one per thread, so
+     * canonical encodings allocate nothing while a search runs
+     */
+    public static final class Scratch {
+        /** the code of every cell, filled in before calling encodeMin */
+        public final int[] codes;
+        /** bits per cell */
+        private final int bits;
+        /** the packing under the permutation being tried */
+        private final long[] candidate;
+
+        /**
+         * Scratch constructor
+         * @param cells number of cells of the board
+         * @param bits bits per cell
+         */
+        public Scratch(int cells, int bits){
+            int cellsPerWord = 64 / bits;
+            this.codes = new int[cells];
+            this.bits = bits;
+            this.candidate = new long[(cells + cellsPerWord - 1) / cellsPerWord];
+        }
+    }
+
+    /**
+     * the symmetries of the rectangle itself, all eight rotations and
+     * reflections for a square and the four that keep the shape otherwise
+     * @param rows int
+     * @param columns int
+     * @return List<int[]>
+     */
+    public static List<int[]> dihedral(int rows, int columns){
+        List<int[]> result = new ArrayList<>();
+        int transforms = rows == columns ? 8 : 4;
+        for (int t = 0; t < transforms; t++) {
+            int[] permutation = new int[rows * columns];
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c++) {
+                    int sr = (t & 1) != 0 ? rows - 1 - r : r;
+                    int sc = (t & 2) != 0 ? columns - 1 - c : c;
+                    permutation[r * columns + c] = (t & 4) != 0 ? sc * columns + sr : sr * columns + sc;
+                }
+            }
+            result.add(permutation);
+        }
+        return result;
+    }
+
+    /**
+     * the identity and the left to right mirror, for puzzles with a
+     * direction such as pawns that only move up the board
+     * @param rows int
+     * @param columns int
+     * @return List<int[]>
+     */
+    public static List<int[]> mirror(int rows, int columns){
+        List<int[]> all = dihedral(rows, columns);
+        return List.of(all.get(0), all.get(2));
+    }
+
+    /**
+     * keeps the permutations that map every cell onto a cell of the same
+     * kind, such as water onto water
+     * @param permutations candidate symmetries
+     * @param kinds the kind of every cell
+     * @return int[][]
+     */
+    public static int[][] preserving(List<int[]> permutations, int[] kinds){
+        List<int[]> result = new ArrayList<>();
+        for (int[] permutation : permutations) {
+            boolean keeps = true;
+            for (int cell = 0; cell < kinds.length && keeps; cell++) {
+                keeps = kinds[permutation[cell]] == kinds[cell];
+            }
+            if (keeps) {
+                result.add(permutation);
+            }
+        }
+        return result.toArray(new int[0][]);
+    }
+
+    /**
+     * packs cell codes in row-major order under every permutation and
+     * writes the smallest packing, compared word by word
+     * @param scratch the buffers to work in, holding the code of every cell
+     * @param permutations symmetries to try, the identity first
+     * @param words where the encoding is written
+     * @param offset index of the first word to write
+     */
+    public static void encodeMin(Scratch scratch, int[][] permutations, long[] words, int offset){
+        int[] codes = scratch.codes;
+        int bits = scratch.bits;
+        long[] candidate = scratch.candidate;
+        int width = candidate.length;
+        int cellsPerWord = 64 / bits;
+        for (int p = 0; p < permutations.length; p++) {
+            int[] permutation = permutations[p];
+            Arrays.fill(candidate, 0L);
+            for (int cell = 0; cell < codes.length; cell++) {
+                candidate[cell / cellsPerWord] |= (long) codes[permutation[cell]] << (cell % cellsPerWord * bits);
+            }
+            if (p == 0 || Arrays.compareUnsigned(candidate, 0, width, words, offset, offset + width) < 0) {
+                System.arraycopy(candidate, 0, words, offset, width);
+            }
+        }
+    }
+}
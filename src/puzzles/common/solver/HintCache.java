@@ -0,0 +1,241 @@
+package puzzles.common.solver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search that remembers what earlier searches of the same puzzle found out,
+ * for answering hints. Every configuration on a solution path maps to the
+ * next one, so asking again from anywhere on that path is a single lookup.
+ * Searches that run out of configurations prove everything they reached
+ * unsolvable, and later searches never enter those again. When the player
+ * leaves the remembered path a new A* search starts, and it stops as soon as
+ * it reaches any configuration already known to lead to a solution, joining
+ * the remembered path there.
+ * <p>
+ * The cache keeps the configurations it is given and finds, so they must not
+ * be changed afterwards; callers that edit their boards pass copies.
+ * Joining a remembered path gives a path that is not always the shortest,
+ * except for puzzles where every solution from a configuration is the same
+ * number of moves away, such as the ones that remove a piece per move.
+ * <p>
+ * Both tables hold at most maxEntries configurations. The configurations
+ * used least recently are forgotten first, and a path missing its middle
+ * is searched for again from where it breaks.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class HintCache extends AbstractSearch {
+    /** milliseconds a search for a hint may take before the player is told to try again */
+    public static final long HINT_TIMEOUT_MILLIS = 10_000;
+    /** milliseconds a check of whether a board can still be solved may search before its answer is unknown */
+    public static final long CHECK_TIMEOUT_MILLIS = 1_000;
+    /** default number of configurations each table keeps */
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 18;
+
+    /** most configurations each table keeps */
+    private final int maxEntries;
+    /** configurations known to lead to a solution mapped to the next one, least recently used first */
+    private final LinkedHashMap<Configuration, Configuration> next;
+    /** configurations proven to have no solution, oldest first */
+    private final LinkedHashSet<Configuration> dead;
+
+    /**
+     * an open configuration
+     * @param configuration the configuration
+     * @param depth number of moves from the configuration the search started at
+     */
+    private record Node(Configuration configuration, int depth) {
+    }
+
+    /**
+     * HintCache constructor
+     */
+    public HintCache(){
+        this(DEFAULT_EXPECTED_STATES);
+    }
+
+    /**
+     * HintCache constructor
+     * @param expectedStates number of states the visited tables are sized for
+     */
+    public HintCache(int expectedStates){
+        this(expectedStates, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * HintCache constructor
+     * @param expectedStates number of states the visited tables are sized for
+     * @param maxEntries most configurations each table keeps, the least
+     *                   recently used go first
+     */
+    public HintCache(int expectedStates, int maxEntries){
+        super(expectedStates);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.next = new LinkedHashMap<>(16, 0.75f, true);
+        this.dead = new LinkedHashSet<>();
+    }
+
+    /**
+     * the configuration one move closer to a solution, searching only when
+     * nothing is known about this configuration yet
+     * @param configuration the configuration to start from
+     * @return Configuration, the configuration itself if it is a solution,
+     *         or null if there is no solution
+     */
+    public Configuration next(Configuration configuration){
+        reset();
+        if (!this.next.containsKey(configuration) && !this.dead.contains(configuration)) {
+            explore(configuration);
+            evict();
+        }
+        return this.next.get(configuration);
+    }
+
+    /**
+     * the whole path to a solution, the remembered one where there is one
+     * @param initialConfiguration the configuration to start from
+     * @return the path from the initial configuration to a solution (both
+     *         included), or an empty list if there is no solution
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration current = next(initialConfiguration);
+        if (current == null) {
+            return path;
+        }
+        path.add(initialConfiguration);
+        Configuration previous = initialConfiguration;
+        while (!current.equals(previous)) {
+            path.add(current);
+            previous = current;
+            current = this.next.get(current);
+            if (current == null) {
+                // the rest of the path was forgotten to make room
+                explore(previous);
+                evict();
+                current = this.next.get(previous);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * remembers a solution path found some other way, such as one kept
+     * between runs
+     * @param path the path, ending at a solution
+     */
+    public void remember(List<Configuration> path){
+        if (path.isEmpty()) {
+            return;
+        }
+        Configuration previous = path.get(0);
+        for (Configuration current : path.subList(1, path.size())) {
+            this.next.put(previous, current);
+            previous = current;
+        }
+        this.next.put(previous, previous);
+        evict();
+    }
+
+    /**
+     * checks if a configuration is already known to have no solution
+     * @param configuration the configuration
+     * @return boolean
+     */
+    public boolean isDead(Configuration configuration){
+        return this.dead.contains(configuration);
+    }
+
+    /**
+     * forgets everything, for when a different puzzle is loaded
+     */
+    public void clear(){
+        this.next.clear();
+        this.dead.clear();
+    }
+
+    /**
+     * forgets the least recently used configurations over the limit
+     */
+    private void evict(){
+        Iterator<Configuration> eldest = this.next.keySet().iterator();
+        while (this.next.size() > this.maxEntries) {
+            eldest.next();
+            eldest.remove();
+        }
+        eldest = this.dead.iterator();
+        while (this.dead.size() > this.maxEntries) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * A* from a configuration nothing is known about, until it reaches a
+     * solution or a configuration known to lead to one. Remembers the path
+     * it found, or when there is none, that everything it reached is dead.
+     * @param start the configuration to start from
+     */
+    private void explore(Configuration start){
+        BucketQueue<Node> open = new BucketQueue<>(true);
+        Map<Configuration, Configuration> predecessors = newVisitedTable();
+        Map<Configuration, Integer> depths = newVisitedTable();
+        open.add(start.heuristic(), new Node(start, 0));
+        predecessors.put(start, start);
+        depths.put(start, 0);
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            Configuration current = node.configuration();
+            if (node.depth() > depths.get(current)) {
+                // a shorter way to this configuration was found after it was queued
+                continue;
+            }
+            expand();
+            if (current.isSolution()) {
+                this.next.put(current, current);
+            }
+            if (this.next.containsKey(current)) {
+                remember(predecessors, current);
+                return;
+            }
+            int depth = node.depth() + 1;
+            for (Configuration nbr : current.getNeighbors()) {
+                this.generated++;
+                if (this.dead.contains(nbr)) {
+                    continue;
+                }
+                Integer known = depths.get(nbr);
+                if (known == null || depth < known) {
+                    depths.put(nbr, depth);
+                    predecessors.put(nbr, current);
+                    open.add(depth + nbr.heuristic(), new Node(nbr, depth));
+                }
+            }
+        }
+        // nothing reachable from the start leads to a solution
+        this.dead.addAll(predecessors.keySet());
+    }
+
+    /**
+     * records the path the predecessor table leads back along from a
+     * configuration known to lead to a solution
+     * @param predecessors maps every visited configuration to its parent,
+     *                     the start maps to itself
+     * @param reached the configuration known to lead to a solution
+     */
+    private void remember(Map<Configuration, Configuration> predecessors, Configuration reached){
+        Configuration current = reached;
+        Configuration parent = predecessors.get(current);
+        while (parent != current) {
+            this.next.put(parent, current);
+            current = parent;
+            parent = predecessors.get(current);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package puzzles.common.solver;
+
+/**
+ * IDA*, iterative deepening bounded by moves made plus
+ * {@link Configuration#heuristic()}. Its memory is linear in the length of
+ * the solution plus the size of the optional transposition table, so it
+ * keeps working on state spaces where the predecessor table of
+ * {@link BreadthFirstSearch} or {@link AStarSearch} runs out of heap.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class IterativeDeepeningAStar extends IterativeDeepeningSearch {
+
+    /**
+     * IterativeDeepeningAStar constructor, without a transposition table
+     */
+    public IterativeDeepeningAStar(){
+        this(0);
+    }
+
+    /**
+     * IterativeDeepeningAStar constructor
+     * @param tableCapacity most configurations the transposition table
+     *                      remembers, 0 for none
+     */
+    public IterativeDeepeningAStar(int tableCapacity){
+        super(Configuration::heuristic, tableCapacity, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,127 @@
+package puzzles.common.solver;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Iterative deepening depth first search. Repeats a depth first search that
+ * gives up on configurations whose moves made plus heuristic go past a bound,
+ * raising the bound to the smallest value that was cut off each time. It
+ * returns a shortest path like BFS while only keeping the current path in
+ * memory.
+ * <p>
+ * Configurations are checked against the current path, and optionally
+ * against a bounded {@link TranspositionTable} of configurations already
+ * searched during the current iteration. Without the table, states
+ * reachable along many paths are explored again.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class IterativeDeepeningSearch extends AbstractSearch {
+    /** estimate of the moves left, 0 for plain iterative deepening */
+    private final ToIntFunction<Configuration> heuristic;
+    /** configurations already searched in the current iteration */
+    private final TranspositionTable table;
+    /** the deepest bound that will be tried */
+    private final int maxDepth;
+
+    /**
+     * IterativeDeepeningSearch constructor
+     */
+    public IterativeDeepeningSearch(){
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * IterativeDeepeningSearch constructor
+     * @param maxDepth the deepest limit that will be tried
+     */
+    public IterativeDeepeningSearch(int maxDepth){
+        this(configuration -> 0, 0, maxDepth);
+    }
+
+    /**
+     * IterativeDeepeningSearch constructor
+     * @param heuristic estimate of the moves left, must never overestimate
+     * @param tableCapacity size of the transposition table, 0 for none
+     * @param maxDepth the deepest bound that will be tried
+     */
+    protected IterativeDeepeningSearch(ToIntFunction<Configuration> heuristic, int tableCapacity, int maxDepth){
+        super(DEFAULT_EXPECTED_STATES);
+        this.heuristic = heuristic;
+        this.table = new TranspositionTable(tableCapacity);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * the path returned is a shortest one, like the one of
+     * {@link AStarSearch} when the bound uses the heuristic
+     * @return true
+     */
+    @Override
+    public boolean isShortest(){
+        return true;
+    }
+
+    /**
+     * Uses iterative deepening to get the shortest path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        int bound = this.heuristic.applyAsInt(initialConfiguration);
+        while (bound <= this.maxDepth) {
+            ArrayDeque<Configuration> path = new ArrayDeque<>();
+            ArrayDeque<Iterator<Configuration>> children = new ArrayDeque<>();
+            Set<Configuration> onPath = new HashSet<>();
+            int nextBound = Integer.MAX_VALUE;
+            this.table.clear();
+            Configuration next = initialConfiguration;
+            while (next != null || !path.isEmpty()) {
+                if (next != null) {
+                    // first visit of a configuration, it becomes the top of the path
+                    path.addLast(next);
+                    onPath.add(next);
+                    expand();
+                    reached(path.size() - 1);
+                    if (next.isSolution()) {
+                        this.table.clear();
+                        return new LinkedList<>(path);
+                    }
+                    children.addLast(next.getNeighbors().iterator());
+                    next = null;
+                }
+                Iterator<Configuration> iterator = children.peekLast();
+                if (iterator.hasNext()) {
+                    Configuration nbr = iterator.next();
+                    this.generated++;
+                    int depth = path.size();
+                    int estimate = depth + this.heuristic.applyAsInt(nbr);
+                    if (estimate > bound) {
+                        nextBound = Math.min(nextBound, estimate);
+                    } else if (!onPath.contains(nbr) && !this.table.visit(nbr, depth)) {
+                        next = nbr;
+                    } else {
+                        this.duplicates++;
+                    }
+                } else {
+                    onPath.remove(path.removeLast());
+                    children.removeLast();
+                }
+            }
+            if (nextBound == Integer.MAX_VALUE) {
+                break;
+            }
+            bound = nextBound;
+        }
+        this.table.clear();
+        return new LinkedList<>();
+    }
+}
@@ -0,0 +1,294 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A {@link StateStore} kept outside the Java heap in memory mapped files. The
+ * hash slots, keys and parent links each live in their own sparse file that is
+ * mapped in chunks as the search reaches them, so they add nothing to the
+ * heap or to garbage collection pauses and the operating system pages them
+ * out to disk once they outgrow memory. The number of states is fixed when
+ * the store is created; the files are deleted when it is closed, or when the
+ * JVM exits where the system does not let a mapped file be deleted.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class MappedStateStore implements StateStore {
+    /** bytes per mapping, a power of two so longs and ints never straddle two */
+    private static final int CHUNK_SHIFT = 27;
+
+    private final int width;
+    /** most states the store can hold */
+    private final int capacity;
+    /** number of hash slots, a power of two */
+    private final long slotCount;
+    /** hash slots holding index + 1, 0 when empty */
+    private final MappedRegion slots;
+    private final MappedRegion keys;
+    /** parent index and move of every state, eight bytes each */
+    private final MappedRegion parents;
+    private int size;
+
+    /**
+     * MappedStateStore constructor
+     * @param directory where the backing files are created
+     * @param width number of words per key
+     * @param capacity most states the store can hold
+     */
+    public MappedStateStore(Path directory, int width, int capacity){
+        this.width = width;
+        this.capacity = Math.max(16, capacity);
+        this.slotCount = Long.highestOneBit(this.capacity * 2L - 1) << 1;
+        try {
+            this.slots = new MappedRegion(directory, "slots", this.slotCount * Integer.BYTES);
+            this.keys = new MappedRegion(directory, "keys", (long) this.capacity * width * Long.BYTES);
+            this.parents = new MappedRegion(directory, "parents", (long) this.capacity * Long.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * creates a factory for stores in the given directory
+     * @param directory where the backing files are created
+     * @param capacity most states each store can hold
+     * @return StateStore.Factory
+     */
+    public static StateStore.Factory factory(Path directory, int capacity){
+        return width -> new MappedStateStore(directory, width, capacity);
+    }
+
+    /**
+     * adds a state if it is not in the store yet
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @param parent index of the parent, or NO_PARENT
+     * @param move the move from the parent to this state, or NO_MOVE
+     * @return the index of the new state, or -1 if it was already there
+     * @throws IllegalStateException if the store is full
+     */
+    @Override
+    public int add(long[] key, int offset, int parent, int move){
+        long slot = find(key, offset);
+        if (this.slots.getInt(slot * Integer.BYTES) != 0) {
+            return -1;
+        }
+        if (this.size == this.capacity) {
+            throw new IllegalStateException("State store is full at " + this.capacity + " states");
+        }
+        int index = this.size++;
+        long position = (long) index * this.width * Long.BYTES;
+        for (int i = 0; i < this.width; i++) {
+            this.keys.putLong(position + (long) i * Long.BYTES, key[offset + i]);
+        }
+        this.parents.putInt((long) index * Long.BYTES, parent);
+        this.parents.putInt((long) index * Long.BYTES + Integer.BYTES, move);
+        this.slots.putInt(slot * Integer.BYTES, index + 1);
+        return index;
+    }
+
+    /**
+     * finds a state
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @return the index of the state, or -1 if it is not in the store
+     */
+    @Override
+    public int indexOf(long[] key, int offset){
+        return this.slots.getInt(find(key, offset) * Integer.BYTES) - 1;
+    }
+
+    /**
+     * copies the key of a state
+     * @param index the index of the state
+     * @param dest where the words are written
+     * @param offset index of the first word to write
+     */
+    @Override
+    public void get(int index, long[] dest, int offset){
+        long position = (long) index * this.width * Long.BYTES;
+        for (int i = 0; i < this.width; i++) {
+            dest[offset + i] = this.keys.getLong(position + (long) i * Long.BYTES);
+        }
+    }
+
+    /**
+     * getter for the parent of a state
+     * @param index the index of the state
+     * @return int, NO_PARENT for a state without a parent
+     */
+    @Override
+    public int parent(int index){
+        return this.parents.getInt((long) index * Long.BYTES);
+    }
+
+    /**
+     * getter for the move that led to a state from its parent
+     * @param index the index of the state
+     * @return int, NO_MOVE for a state added without one
+     */
+    @Override
+    public int move(int index){
+        return this.parents.getInt((long) index * Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * getter for size
+     * @return int
+     */
+    @Override
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * getter for width
+     * @return int
+     */
+    @Override
+    public int width(){
+        return this.width;
+    }
+
+    /**
+     * closes and deletes the backing files, never throws so it cannot hide
+     * the result of the search closing it
+     */
+    @Override
+    public void close(){
+        try {
+            this.slots.close();
+        } finally {
+            try {
+                this.keys.close();
+            } finally {
+                this.parents.close();
+            }
+        }
+    }
+
+    /**
+     * finds the slot holding a key, or the empty slot where it belongs
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @return long
+     */
+    private long find(long[] key, int offset){
+        long mask = this.slotCount - 1;
+        long slot = StateStore.hash(key, offset, this.width) & mask;
+        for (int entry = this.slots.getInt(slot * Integer.BYTES); entry != 0;
+             entry = this.slots.getInt(slot * Integer.BYTES)) {
+            if (matches(entry - 1, key, offset)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * compares a stored key with the given words
+     * @param index the stored state
+     * @param key the words to compare with
+     * @param offset index of the first word to compare
+     * @return boolean
+     */
+    private boolean matches(int index, long[] key, int offset){
+        long position = (long) index * this.width * Long.BYTES;
+        for (int i = 0; i < this.width; i++) {
+            if (this.keys.getLong(position + (long) i * Long.BYTES) != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * a sparse temporary file mapped into memory one chunk at a time
+     */
+    private static final class MappedRegion {
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer[] chunks;
+
+        /**
+         * MappedRegion constructor
+         * @param directory where the file is created
+         * @param name part of the file name
+         * @param bytes size of the region
+         * @throws IOException if the file cannot be created
+         */
+        MappedRegion(Path directory, String name, long bytes) throws IOException {
+            Files.createDirectories(directory);
+            this.file = Files.createTempFile(directory, "states-", "." + name);
+            this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.SPARSE);
+            this.chunks = new MappedByteBuffer[(int) ((bytes + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT)];
+        }
+
+        /**
+         * maps the chunk holding a position the first time it is used
+         * @param position byte position in the region
+         * @return MappedByteBuffer
+         */
+        private MappedByteBuffer chunk(long position){
+            int index = (int) (position >>> CHUNK_SHIFT);
+            MappedByteBuffer chunk = this.chunks[index];
+            if (chunk == null) {
+                try {
+                    chunk = this.channel.map(FileChannel.MapMode.READ_WRITE, (long) index << CHUNK_SHIFT,
+                            1L << CHUNK_SHIFT);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                chunk.order(ByteOrder.nativeOrder());
+                this.chunks[index] = chunk;
+            }
+            return chunk;
+        }
+
+        int getInt(long position){
+            return chunk(position).getInt((int) (position & ((1L << CHUNK_SHIFT) - 1)));
+        }
+
+        void putInt(long position, int value){
+            chunk(position).putInt((int) (position & ((1L << CHUNK_SHIFT) - 1)), value);
+        }
+
+        long getLong(long position){
+            return chunk(position).getLong((int) (position & ((1L << CHUNK_SHIFT) - 1)));
+        }
+
+        void putLong(long position, long value){
+            chunk(position).putLong((int) (position & ((1L << CHUNK_SHIFT) - 1)), value);
+        }
+
+        /**
+         * closes the channel and deletes the file, best effort. The mappings
+         * are only released once they are garbage collected, and until then
+         * Windows refuses to delete the file, so it is left to be deleted
+         * when the JVM exits
+         */
+        void close(){
+            Arrays.fill(this.chunks, null);
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                // nothing was written that needs keeping
+            }
+            try {
+                Files.deleteIfExists(this.file);
+            } catch (IOException e) {
+                this.file.toFile().deleteOnExit();
+            }
+        }
+    }
+}
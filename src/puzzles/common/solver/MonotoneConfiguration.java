@@ -0,0 +1,22 @@
+package puzzles.common.solver;
+
+/**
+ * A configuration of a puzzle where every move brings it exactly one move
+ * closer to the end, such as a capture in chess solitaire or a jump that
+ * removes a green frog in Hoppers. Every path from a configuration to a
+ * solution then has the same length, so there are no cycles and no path is
+ * shorter than another: the first solution found is as good as any, and a
+ * configuration that failed once fails on every path that reaches it.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public interface MonotoneConfiguration extends Configuration {
+
+    /**
+     * number of moves every path from here to a solution takes. Every move
+     * lowers it by exactly one, and a configuration with none left is a
+     * solution or a dead end.
+     * @return int, never negative
+     */
+    int movesLeft();
+}
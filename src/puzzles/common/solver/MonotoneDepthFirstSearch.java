@@ -0,0 +1,194 @@
+package puzzles.common.solver;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Depth first search for {@link MonotoneConfiguration}s, where every
+ * solution is the same number of moves away. It stops at the first solution
+ * and remembers the states it has searched without finding one in a bounded
+ * {@link DeadStateTable}, which is exact because a dead state is dead along
+ * every path. Only the current path is kept, and {@link MoveConfiguration}s
+ * are searched by making and taking back moves on one board.
+ * Configurations that are not monotone and encodable are solved with
+ * {@link DepthFirstSearch}.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class MonotoneDepthFirstSearch extends AbstractSearch {
+    /** default number of dead states remembered */
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 20;
+    /** most dead states remembered */
+    private final int tableCapacity;
+    /** whether the last search was of a monotone configuration */
+    private boolean monotone;
+
+    /**
+     * MonotoneDepthFirstSearch constructor
+     */
+    public MonotoneDepthFirstSearch(){
+        this(DEFAULT_TABLE_CAPACITY);
+    }
+
+    /**
+     * MonotoneDepthFirstSearch constructor
+     * @param tableCapacity most dead states remembered
+     */
+    public MonotoneDepthFirstSearch(int tableCapacity){
+        super(DEFAULT_EXPECTED_STATES);
+        this.tableCapacity = tableCapacity;
+    }
+
+    /**
+     * the path returned is a shortest one unless the search fell back to
+     * {@link DepthFirstSearch}, every solution being the same number of
+     * moves away
+     * @return boolean
+     */
+    @Override
+    public boolean isShortest(){
+        return this.monotone;
+    }
+
+    /**
+     * Uses DFS to get the first path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        this.monotone = false;
+        if (!(initialConfiguration instanceof MonotoneConfiguration monotone)
+                || !(initialConfiguration instanceof EncodableConfiguration initial)) {
+            DepthFirstSearch dfs = new DepthFirstSearch();
+            LinkedList<Configuration> path = dfs.search(initialConfiguration);
+            copyCounters(dfs);
+            return path;
+        }
+        this.monotone = true;
+        DeadStateTable dead = new DeadStateTable(initial.encodedWords(), this.tableCapacity);
+        if (initial instanceof MoveConfiguration moves) {
+            return searchMoves(moves, monotone.movesLeft(), dead);
+        }
+        return searchNeighbors(initial, dead);
+    }
+
+    /**
+     * the search for configurations with moves, one working board and a
+     * buffer of moves per level
+     * @param initial the initial configuration
+     * @param depth moves from the initial configuration to any solution
+     * @param dead the dead states
+     * @return LinkedList<Configuration>
+     */
+    private LinkedList<Configuration> searchMoves(MoveConfiguration initial, int depth, DeadStateTable dead){
+        MoveConfiguration work = initial.copy();
+        long[] words = new long[initial.encodedWords()];
+        int[][] moves = new int[depth + 1][work.maxMoves()];
+        int[] counts = new int[depth + 1];
+        int[] next = new int[depth + 1];
+        expand();
+        if (work.isSolution()) {
+            return replay(initial, moves, next, 0);
+        }
+        int level = 0;
+        counts[0] = work.generateMoves(moves[0]);
+        while (level >= 0) {
+            if (next[level] < counts[level]) {
+                int move = moves[level][next[level]++];
+                work.makeMove(move);
+                this.generated++;
+                work.encode(words, 0);
+                if (level == depth || dead.contains(words, 0)) {
+                    if (level < depth) {
+                        this.duplicates++;
+                    }
+                    work.unmakeMove(move);
+                    continue;
+                }
+                expand();
+                if (work.isSolution()) {
+                    return replay(initial, moves, next, level + 1);
+                }
+                level++;
+                reached(level);
+                counts[level] = work.generateMoves(moves[level]);
+                next[level] = 0;
+            } else {
+                // every move from here failed
+                if (level > 0) {
+                    work.encode(words, 0);
+                    dead.add(words, 0);
+                    work.unmakeMove(moves[level - 1][next[level - 1] - 1]);
+                }
+                level--;
+            }
+        }
+        return new LinkedList<>();
+    }
+
+    /**
+     * rebuilds the path from the moves taken on each level
+     * @param initial the initial configuration
+     * @param moves the move buffers of every level
+     * @param next one past the move taken on every level
+     * @param levels number of moves on the path
+     * @return LinkedList<Configuration>
+     */
+    private static LinkedList<Configuration> replay(MoveConfiguration initial, int[][] moves, int[] next, int levels){
+        LinkedList<Configuration> path = new LinkedList<>();
+        MoveConfiguration current = initial;
+        path.add(current);
+        for (int level = 0; level < levels; level++) {
+            current = current.copy();
+            current.makeMove(moves[level][next[level] - 1]);
+            path.add(current);
+        }
+        return path;
+    }
+
+    /**
+     * the search for other encodable configurations, keeping the path and
+     * an iterator over the neighbors of every configuration on it
+     * @param initial the initial configuration
+     * @param dead the dead states
+     * @return LinkedList<Configuration>
+     */
+    private LinkedList<Configuration> searchNeighbors(EncodableConfiguration initial, DeadStateTable dead){
+        long[] words = new long[initial.encodedWords()];
+        ArrayDeque<Configuration> path = new ArrayDeque<>();
+        ArrayDeque<Iterator<Configuration>> children = new ArrayDeque<>();
+        Configuration next = initial;
+        while (next != null || !path.isEmpty()) {
+            if (next != null) {
+                expand();
+                path.addLast(next);
+                reached(path.size() - 1);
+                if (next.isSolution()) {
+                    return new LinkedList<>(path);
+                }
+                children.addLast(next.getNeighbors().iterator());
+                next = null;
+            }
+            Iterator<Configuration> it = children.peekLast();
+            if (it.hasNext()) {
+                EncodableConfiguration child = (EncodableConfiguration) it.next();
+                this.generated++;
+                child.encode(words, 0);
+                if (!dead.contains(words, 0)) {
+                    next = child;
+                } else {
+                    this.duplicates++;
+                }
+            } else {
+                // every neighbor failed
+                children.removeLast();
+                ((EncodableConfiguration) path.removeLast()).encode(words, 0);
+                dead.add(words, 0);
+            }
+        }
+        return new LinkedList<>();
+    }
+}
@@ -0,0 +1,53 @@
+package puzzles.common.solver;
+
+/**
+ * An encodable configuration that can apply and take back moves in place.
+ * A move is packed into an int, so a search can list the moves of a state
+ * into a reused buffer, apply one, look the result up by its encoding and
+ * take the move back, and only build a new configuration for states it has
+ * not seen before.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public interface MoveConfiguration extends EncodableConfiguration {
+
+    /**
+     * most moves any configuration of this puzzle can have, the size a
+     * buffer for generateMoves needs
+     * @return int
+     */
+    int maxMoves();
+
+    /**
+     * writes the moves of this configuration into the buffer
+     * @param moves at least maxMoves long
+     * @return the number of moves written
+     */
+    int generateMoves(int[] moves);
+
+    /**
+     * applies a move made by generateMoves to this configuration
+     * @param move the packed move
+     */
+    void makeMove(int move);
+
+    /**
+     * takes back the last move applied with makeMove
+     * @param move the packed move
+     */
+    void unmakeMove(int move);
+
+    /**
+     * overwrites this configuration with an encoding made by encode or
+     * encodeCanonical, without allocating
+     * @param words where the encoding is read from
+     * @param offset index of the first word to read
+     */
+    void load(long[] words, int offset);
+
+    /**
+     * an independent copy of this configuration
+     * @return MoveConfiguration
+     */
+    MoveConfiguration copy();
+}
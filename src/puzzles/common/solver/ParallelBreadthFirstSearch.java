@@ -0,0 +1,272 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Level synchronous breadth first search. Every layer of the search is
+ * expanded by a fork join pool and the visited configurations are kept in a
+ * concurrent predecessor table. The next layer is only started once the
+ * current one is done, so the path returned is as short as the one from
+ * {@link BreadthFirstSearch}.
+ * <p>
+ * Without determinism the parent of a configuration is whichever worker got
+ * to it first. With determinism every configuration keeps the parent that
+ * comes first in layer order and the next layer is kept in that order, so
+ * the same path is returned on every run.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class ParallelBreadthFirstSearch extends AbstractSearch {
+    /** layers smaller than this are expanded by a single task */
+    private static final int CHUNK_SIZE = 64;
+
+    /** number of worker threads */
+    private final int parallelism;
+    /** whether the path has to be reproducible */
+    private final boolean deterministic;
+    /** generated counter of the running search, null when none is running */
+    private volatile LongAdder generatedCount;
+    /** expanded counter of the running search, null when none is running */
+    private volatile LongAdder expandedCount;
+
+    /**
+     * how a configuration was reached
+     * @param parent the configuration it was generated from
+     * @param layer the layer of the parent
+     * @param order position of the parent in its layer and of the
+     *              configuration among the parent's neighbors
+     */
+    private record Link(Configuration parent, int layer, long order) {
+        /**
+         * picks the link that comes first in layer order
+         * @param other Link
+         * @return Link
+         */
+        Link first(Link other) {
+            if (this.layer != other.layer) {
+                return this.layer < other.layer ? this : other;
+            }
+            return this.order <= other.order ? this : other;
+        }
+    }
+
+    /**
+     * a configuration found while expanding a layer
+     * @param configuration the neighbor
+     * @param link how it was reached
+     */
+    private record Candidate(Configuration configuration, Link link) {
+    }
+
+    /**
+     * ParallelBreadthFirstSearch constructor, uses every available processor
+     * @param deterministic whether the path has to be reproducible
+     */
+    public ParallelBreadthFirstSearch(boolean deterministic){
+        this(Runtime.getRuntime().availableProcessors(), deterministic);
+    }
+
+    /**
+     * ParallelBreadthFirstSearch constructor
+     * @param parallelism number of worker threads
+     * @param deterministic whether the path has to be reproducible
+     */
+    public ParallelBreadthFirstSearch(int parallelism, boolean deterministic){
+        super(DEFAULT_EXPECTED_STATES);
+        this.parallelism = Math.max(1, parallelism);
+        this.deterministic = deterministic;
+    }
+
+    /**
+     * the path returned is always a shortest one
+     * @return true
+     */
+    @Override
+    public boolean isShortest(){
+        return true;
+    }
+
+    /**
+     * Uses a parallel BFS to get the shortest path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        ConcurrentHashMap<Configuration, Link> predecessors =
+                new ConcurrentHashMap<>(DEFAULT_EXPECTED_STATES, 0.75f, this.parallelism);
+        predecessors.put(initialConfiguration, new Link(initialConfiguration, -1, 0));
+        List<Configuration> layer = new ArrayList<>();
+        layer.add(initialConfiguration);
+        LongAdder generatedCount = new LongAdder();
+        LongAdder expandedCount = new LongAdder();
+        this.generatedCount = generatedCount;
+        this.expandedCount = expandedCount;
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            for (int depth = 0; !layer.isEmpty(); depth++) {
+                this.depth = depth;
+                frontier(layer.size());
+                AtomicInteger solution = new AtomicInteger(Integer.MAX_VALUE);
+                List<Candidate> candidates = invoke(pool, new Expand(layer, depth, 0, layer.size(),
+                        predecessors, solution, generatedCount, expandedCount));
+                if (solution.get() != Integer.MAX_VALUE) {
+                    return buildPath(predecessors, layer.get(solution.get()));
+                }
+                List<Configuration> next = new ArrayList<>(candidates.size());
+                for (Candidate candidate : candidates) {
+                    // with determinism a candidate may have lost to one earlier in the layer
+                    if (!this.deterministic || predecessors.get(candidate.configuration()) == candidate.link()) {
+                        next.add(candidate.configuration());
+                    }
+                }
+                layer = next;
+            }
+            return new LinkedList<>();
+        } finally {
+            pool.shutdown();
+            this.generated = generatedCount.sum();
+            this.expanded = expandedCount.sum();
+            // every neighbor that did not get a link of its own was seen before
+            this.duplicates = this.generated + 1 - predecessors.size();
+            this.generatedCount = null;
+            this.expandedCount = null;
+        }
+    }
+
+    /**
+     * getter for generated, read from the workers' counter while a search
+     * is running
+     * @return long
+     */
+    @Override
+    public long getGenerated(){
+        LongAdder live = this.generatedCount;
+        return live == null ? this.generated : live.sum();
+    }
+
+    /**
+     * getter for expanded, read from the workers' counter while a search is
+     * running
+     * @return long
+     */
+    @Override
+    public long getExpanded(){
+        LongAdder live = this.expandedCount;
+        return live == null ? this.expanded : live.sum();
+    }
+
+    /**
+     * walks the predecessor table back from the solution
+     * @param predecessors the concurrent predecessor table
+     * @param solution the solution that was found
+     * @return LinkedList<Configuration>
+     */
+    private static LinkedList<Configuration> buildPath(ConcurrentHashMap<Configuration, Link> predecessors,
+                                                       Configuration solution){
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration currNode = solution;
+        Configuration parent = predecessors.get(currNode).parent();
+        while (!parent.equals(currNode)) {
+            path.addFirst(currNode);
+            currNode = parent;
+            parent = predecessors.get(currNode).parent();
+        }
+        path.addFirst(currNode);
+        return path;
+    }
+
+    /**
+     * expands part of a layer, returns the configurations it added to the
+     * predecessor table in layer order
+     */
+    @SuppressWarnings("serial")
+    private class Expand extends RecursiveTask<List<Candidate>> {
+        private final List<Configuration> layer;
+        private final int depth;
+        private final int low;
+        private final int high;
+        private final ConcurrentHashMap<Configuration, Link> predecessors;
+        private final AtomicInteger solution;
+        private final LongAdder generatedCount;
+        private final LongAdder expandedCount;
+
+        /**
+         * Expand constructor
+         * @param layer the layer being expanded
+         * @param depth the depth of the layer
+         * @param low first index to expand
+         * @param high one past the last index to expand
+         * @param predecessors the shared predecessor table
+         * @param solution lowest index in the layer that is a solution
+         * @param generatedCount shared generated counter
+         * @param expandedCount shared expanded counter
+         */
+        Expand(List<Configuration> layer, int depth, int low, int high,
+               ConcurrentHashMap<Configuration, Link> predecessors, AtomicInteger solution,
+               LongAdder generatedCount, LongAdder expandedCount){
+            this.layer = layer;
+            this.depth = depth;
+            this.low = low;
+            this.high = high;
+            this.predecessors = predecessors;
+            this.solution = solution;
+            this.generatedCount = generatedCount;
+            this.expandedCount = expandedCount;
+        }
+
+        /**
+         * splits the range until it is small enough, then expands it
+         * @return List<Candidate>
+         */
+        @Override
+        protected List<Candidate> compute(){
+            if (this.high - this.low > CHUNK_SIZE) {
+                int middle = (this.low + this.high) >>> 1;
+                Expand left = new Expand(layer, depth, low, middle, predecessors, solution,
+                        generatedCount, expandedCount);
+                Expand right = new Expand(layer, depth, middle, high, predecessors, solution,
+                        generatedCount, expandedCount);
+                left.fork();
+                List<Candidate> result = right.compute();
+                List<Candidate> leftResult = left.join();
+                leftResult.addAll(result);
+                return leftResult;
+            }
+            List<Candidate> result = new ArrayList<>();
+            for (int i = this.low; i < this.high; i++) {
+                Configuration current = this.layer.get(i);
+                this.expandedCount.increment();
+                if (current.isSolution()) {
+                    this.solution.accumulateAndGet(i, Math::min);
+                    continue;
+                }
+                if (this.solution.get() != Integer.MAX_VALUE) {
+                    // the layer already holds a solution, its children are never needed
+                    continue;
+                }
+                long ordinal = 0;
+                for (Configuration nbr : current.getNeighbors()) {
+                    Link link = new Link(current, this.depth, ((long) i << 32) | ordinal++);
+                    if (deterministic) {
+                        if (this.predecessors.merge(nbr, link, Link::first) == link) {
+                            result.add(new Candidate(nbr, link));
+                        }
+                    } else if (this.predecessors.putIfAbsent(nbr, link) == null) {
+                        result.add(new Candidate(nbr, link));
+                    }
+                }
+                this.generatedCount.add(ordinal);
+            }
+            return result;
+        }
+    }
+}
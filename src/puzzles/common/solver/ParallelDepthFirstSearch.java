@@ -0,0 +1,304 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel depth first search for {@link MonotoneConfiguration}s. The top of
+ * the search tree is split into fork join tasks, one per subtree, and idle
+ * workers steal the subtrees that have not been started yet. Once a worker's
+ * queue is busy enough it searches the rest of its subtree on its own like
+ * {@link MonotoneDepthFirstSearch}. The first worker to reach a solution
+ * publishes it and every other worker stops at its next state. States
+ * proven dead are shared through an {@link AtomicDeadStateTable}.
+ * Configurations that are not monotone and encodable are solved with
+ * {@link DepthFirstSearch}.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class ParallelDepthFirstSearch extends AbstractSearch {
+    /** a worker with fewer queued tasks than this splits its subtree */
+    private static final int SURPLUS = 3;
+    /** subtrees with at most this many moves left are never split */
+    private static final int SEQUENTIAL_MOVES = 2;
+
+    /** number of worker threads */
+    private final int parallelism;
+    /** number of dead states the shared table holds */
+    private final int tableCapacity;
+    /** whether the last search was of a monotone configuration */
+    private boolean monotone;
+    /** state of the running search, null when none is running */
+    private volatile Context running;
+
+    /**
+     * a configuration and the one before it on the path
+     * @param configuration the configuration
+     * @param parent the step before, null for the initial configuration
+     */
+    private record Step(Configuration configuration, Step parent) {
+    }
+
+    /**
+     * state shared by every task of one search
+     * @param dead the shared dead states
+     * @param solution the last step of the first path found
+     * @param generatedCount shared generated counter
+     * @param expandedCount shared expanded counter
+     * @param duplicateCount shared counter of neighbors found dead
+     */
+    private record Context(AtomicDeadStateTable dead, AtomicReference<Step> solution,
+                           LongAdder generatedCount, LongAdder expandedCount, LongAdder duplicateCount) {
+    }
+
+    /**
+     * ParallelDepthFirstSearch constructor, uses every available processor
+     */
+    public ParallelDepthFirstSearch(){
+        this(Runtime.getRuntime().availableProcessors(), MonotoneDepthFirstSearch.DEFAULT_TABLE_CAPACITY);
+    }
+
+    /**
+     * ParallelDepthFirstSearch constructor
+     * @param parallelism number of worker threads
+     * @param tableCapacity number of dead states the shared table holds
+     */
+    public ParallelDepthFirstSearch(int parallelism, int tableCapacity){
+        super(DEFAULT_EXPECTED_STATES);
+        this.parallelism = Math.max(1, parallelism);
+        this.tableCapacity = tableCapacity;
+    }
+
+    /**
+     * the path returned is a shortest one unless the search fell back to
+     * {@link DepthFirstSearch}, every solution being the same number of
+     * moves away
+     * @return boolean
+     */
+    @Override
+    public boolean isShortest(){
+        return this.monotone;
+    }
+
+    /**
+     * Uses a parallel DFS to get the first path to the solution
+     * @param initialConfiguration the configuration to start from
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public LinkedList<Configuration> search(Configuration initialConfiguration){
+        reset();
+        this.monotone = false;
+        if (!(initialConfiguration instanceof MonotoneConfiguration)
+                || !(initialConfiguration instanceof EncodableConfiguration initial)) {
+            DepthFirstSearch dfs = new DepthFirstSearch();
+            LinkedList<Configuration> path = dfs.search(initialConfiguration);
+            copyCounters(dfs);
+            return path;
+        }
+        this.monotone = true;
+        Context context = new Context(new AtomicDeadStateTable(initial.encodedWords(), this.tableCapacity),
+                new AtomicReference<>(), new LongAdder(), new LongAdder(), new LongAdder());
+        this.running = context;
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            invoke(pool, new Explore(new Step(initial, null), context));
+            LinkedList<Configuration> path = new LinkedList<>();
+            for (Step step = context.solution().get(); step != null; step = step.parent()) {
+                path.addFirst(step.configuration());
+            }
+            return path;
+        } finally {
+            pool.shutdownNow();
+            this.generated = context.generatedCount().sum();
+            this.expanded = context.expandedCount().sum();
+            this.duplicates = context.duplicateCount().sum();
+            this.running = null;
+        }
+    }
+
+    /**
+     * getter for generated, read from the workers' counter while a search
+     * is running
+     * @return long
+     */
+    @Override
+    public long getGenerated(){
+        Context live = this.running;
+        return live == null ? this.generated : live.generatedCount().sum();
+    }
+
+    /**
+     * getter for expanded, read from the workers' counter while a search is
+     * running
+     * @return long
+     */
+    @Override
+    public long getExpanded(){
+        Context live = this.running;
+        return live == null ? this.expanded : live.expandedCount().sum();
+    }
+
+    /**
+     * getter for duplicates, read from the workers' counter while a search
+     * is running
+     * @return long
+     */
+    @Override
+    public long getDuplicates(){
+        Context live = this.running;
+        return live == null ? this.duplicates : live.duplicateCount().sum();
+    }
+
+    /**
+     * searches the subtree below one step, returns whether it was proven to
+     * hold no solution
+     */
+    @SuppressWarnings("serial")
+    private static class Explore extends RecursiveTask<Boolean> {
+        private final Step step;
+        private final Context context;
+
+        /**
+         * Explore constructor
+         * @param step the root of the subtree
+         * @param context the state shared by the search
+         */
+        Explore(Step step, Context context){
+            this.step = step;
+            this.context = context;
+        }
+
+        /**
+         * splits the subtree into tasks while workers are short of work,
+         * otherwise searches it here
+         * @return Boolean
+         */
+        @Override
+        protected Boolean compute(){
+            Configuration current = this.step.configuration();
+            if (this.context.solution().get() != null) {
+                return false;
+            }
+            this.context.expandedCount().increment();
+            if (current.isSolution()) {
+                this.context.solution().compareAndSet(null, this.step);
+                return false;
+            }
+            long[] words = new long[((EncodableConfiguration) current).encodedWords()];
+            boolean dead;
+            if (current instanceof MoveConfiguration moves && (getSurplusQueuedTaskCount() >= SURPLUS
+                    || ((MonotoneConfiguration) current).movesLeft() <= SEQUENTIAL_MOVES)) {
+                dead = searchMoves(moves, words);
+            } else {
+                List<Explore> tasks = new ArrayList<>();
+                for (Configuration nbr : current.getNeighbors()) {
+                    this.context.generatedCount().increment();
+                    ((EncodableConfiguration) nbr).encode(words, 0);
+                    if (!this.context.dead().contains(words, 0)) {
+                        tasks.add(new Explore(new Step(nbr, this.step), this.context));
+                    } else {
+                        this.context.duplicateCount().increment();
+                    }
+                }
+                dead = true;
+                for (Explore task : invokeAll(tasks)) {
+                    dead &= task.join();
+                }
+            }
+            if (dead) {
+                ((EncodableConfiguration) current).encode(words, 0);
+                this.context.dead().add(words, 0);
+            }
+            return dead;
+        }
+
+        /**
+         * searches the subtree by making and taking back moves on a copy of
+         * its root, stopping as soon as any worker has a solution
+         * @param root the root of the subtree, not changed
+         * @param words scratch space for one key
+         * @return whether the subtree was proven to hold no solution
+         */
+        private boolean searchMoves(MoveConfiguration root, long[] words){
+            MoveConfiguration work = root.copy();
+            int depth = ((MonotoneConfiguration) root).movesLeft();
+            int[][] moves = new int[depth + 1][work.maxMoves()];
+            int[] counts = new int[depth + 1];
+            int[] next = new int[depth + 1];
+            long generated = 0;
+            long expanded = 0;
+            long duplicates = 0;
+            int level = 0;
+            counts[0] = work.generateMoves(moves[0]);
+            try {
+                while (level >= 0) {
+                    if (this.context.solution().get() != null) {
+                        return false;
+                    }
+                    if (next[level] < counts[level]) {
+                        int move = moves[level][next[level]++];
+                        work.makeMove(move);
+                        generated++;
+                        work.encode(words, 0);
+                        if (level == depth || this.context.dead().contains(words, 0)) {
+                            if (level < depth) {
+                                duplicates++;
+                            }
+                            work.unmakeMove(move);
+                            continue;
+                        }
+                        if ((++expanded & (INTERRUPT_CHECK_INTERVAL - 1)) == 0 && getPool().isShutdown()) {
+                            // the search was interrupted
+                            return false;
+                        }
+                        if (work.isSolution()) {
+                            publish(root, moves, next, level + 1);
+                            return false;
+                        }
+                        level++;
+                        counts[level] = work.generateMoves(moves[level]);
+                        next[level] = 0;
+                    } else {
+                        // every move from here failed
+                        if (level > 0) {
+                            work.encode(words, 0);
+                            this.context.dead().add(words, 0);
+                            work.unmakeMove(moves[level - 1][next[level - 1] - 1]);
+                        }
+                        level--;
+                    }
+                }
+                return true;
+            } finally {
+                this.context.generatedCount().add(generated);
+                this.context.expandedCount().add(expanded);
+                this.context.duplicateCount().add(duplicates);
+            }
+        }
+
+        /**
+         * replays the moves taken below the root onto the path and offers it
+         * as the solution
+         * @param root the root of the subtree
+         * @param moves the move buffers of every level
+         * @param next one past the move taken on every level
+         * @param levels number of moves below the root
+         */
+        private void publish(MoveConfiguration root, int[][] moves, int[] next, int levels){
+            Step last = this.step;
+            MoveConfiguration current = root;
+            for (int level = 0; level < levels; level++) {
+                current = current.copy();
+                current.makeMove(moves[level][next[level] - 1]);
+                last = new Step(current, last);
+            }
+            this.context.solution().compareAndSet(null, last);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+
+/**
+ * A configuration that knows the exact solution it is heading for and can
+ * undo moves, so a search can also run backwards from the goal.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public interface ReversibleConfiguration extends Configuration {
+
+    /**
+     * the solution this configuration has to reach
+     * @return Configuration, or null if no move can reach a solution, a
+     *         search then runs forward only
+     */
+    Configuration getGoal();
+
+    /**
+     * every configuration that has this one as a neighbor. The default is
+     * for puzzles where every move can be undone by another move.
+     * @return Collection<Configuration>
+     */
+    default Collection<Configuration> getPredecessors(){
+        return getNeighbors();
+    }
+}
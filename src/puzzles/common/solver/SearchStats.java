@@ -0,0 +1,179 @@
+package puzzles.common.solver;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one search did: the configurations it generated and expanded, how
+ * many of the generated ones it had already seen, the largest its frontier
+ * got, the deepest it went, how long it took and how much the thread running
+ * it allocated. A strategy leaves at 0 a counter it does not keep. The
+ * allocated bytes are those of the calling thread only, so they leave out
+ * what the fork join workers of the parallel strategies allocate.
+ * <p>
+ * Stats taken while a search is running, for the progress observer of a
+ * {@link SolveRequest}, read the counters of the strategy without stopping
+ * it, so they are close to, not exactly, where the search was.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public final class SearchStats {
+    private final long generated;
+    private final long expanded;
+    private final long duplicates;
+    private final long peakFrontier;
+    private final int depth;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    /** whether the solution came from a solution cache instead of a search */
+    private final boolean cached;
+
+    /**
+     * SearchStats constructor
+     * @param generated neighbors generated
+     * @param expanded configurations expanded
+     * @param duplicates generated neighbors that had already been seen
+     * @param peakFrontier most configurations waiting to be expanded at once
+     * @param depth deepest configuration expanded, in moves from the start
+     * @param elapsedNanos wall time
+     * @param allocatedBytes bytes allocated by the searching thread, -1 if the JVM cannot tell
+     * @param cached whether the solution came from a solution cache
+     */
+    public SearchStats(long generated, long expanded, long duplicates, long peakFrontier, int depth,
+                       long elapsedNanos, long allocatedBytes, boolean cached){
+        this.generated = generated;
+        this.expanded = expanded;
+        this.duplicates = duplicates;
+        this.peakFrontier = peakFrontier;
+        this.depth = depth;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.cached = cached;
+    }
+
+    /**
+     * SearchStats constructor, takes the counters of a strategy
+     * @param strategy the strategy that ran, or is running, the search
+     * @param elapsedNanos wall time
+     * @param allocatedBytes bytes allocated by the searching thread, -1 if the JVM cannot tell
+     */
+    public SearchStats(SearchStrategy strategy, long elapsedNanos, long allocatedBytes){
+        this(strategy.getGenerated(), strategy.getExpanded(), strategy.getDuplicates(), strategy.getPeakFrontier(),
+                strategy.getDepth(), elapsedNanos, allocatedBytes, false);
+    }
+
+    /**
+     * bytes allocated so far by a thread
+     * @param thread the thread
+     * @return long, or -1 if the JVM cannot tell
+     */
+    public static long allocatedBytes(Thread thread){
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getThreadAllocatedBytes(thread.getId());
+        }
+        return -1;
+    }
+
+    /**
+     * getter for generated, neighbors generated
+     * @return long
+     */
+    public long getGenerated(){
+        return this.generated;
+    }
+
+    /**
+     * getter for expanded, configurations expanded
+     * @return long
+     */
+    public long getExpanded(){
+        return this.expanded;
+    }
+
+    /**
+     * getter for duplicates, generated neighbors that had already been seen
+     * @return long
+     */
+    public long getDuplicates(){
+        return this.duplicates;
+    }
+
+    /**
+     * number of configurations seen, the initial one and every neighbor
+     * generated
+     * @return long
+     */
+    public long getTotal(){
+        return this.cached ? 0 : this.generated + 1;
+    }
+
+    /**
+     * number of different configurations seen
+     * @return long
+     */
+    public long getUnique(){
+        return getTotal() - this.duplicates;
+    }
+
+    /**
+     * getter for peakFrontier, the most configurations waiting to be expanded at once
+     * @return long
+     */
+    public long getPeakFrontier(){
+        return this.peakFrontier;
+    }
+
+    /**
+     * getter for depth, the deepest configuration expanded in moves from the start
+     * @return int
+     */
+    public int getDepth(){
+        return this.depth;
+    }
+
+    /**
+     * getter for elapsedNanos
+     * @return long
+     */
+    public long getElapsedNanos(){
+        return this.elapsedNanos;
+    }
+
+    /**
+     * configurations expanded per second of wall time
+     * @return double
+     */
+    public double getNodesPerSecond(){
+        return this.elapsedNanos == 0 ? 0 : this.expanded * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * getter for allocatedBytes
+     * @return long, -1 if the JVM cannot tell
+     */
+    public long getAllocatedBytes(){
+        return this.allocatedBytes;
+    }
+
+    /**
+     * checks if the solution came from a solution cache instead of a search
+     * @return boolean
+     */
+    public boolean isCached(){
+        return this.cached;
+    }
+
+    /**
+     * toString method for SearchStats
+     * @return String, every counter on one line
+     */
+    @Override
+    public String toString(){
+        return "generated=" + this.generated + " expanded=" + this.expanded + " duplicates=" + this.duplicates
+                + " peakFrontier=" + this.peakFrontier + " depth=" + this.depth
+                + " elapsedMillis=" + TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos)
+                + " nodesPerSecond=" + Math.round(getNodesPerSecond()) + " allocatedBytes=" + this.allocatedBytes
+                + (this.cached ? " cached" : "");
+    }
+}
@@ -0,0 +1,60 @@
+package puzzles.common.solver;
+
+import java.util.LinkedList;
+
+/**
+ * A search algorithm the {@link Solver} can delegate to.
+ * A strategy instance runs one search at a time; its counters describe the
+ * most recent call to {@link #search(Configuration)}.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public interface SearchStrategy {
+
+    /**
+     * Searches for a solution reachable from the initial configuration.
+     * @param initialConfiguration the configuration to start from
+     * @return the path from the initial configuration to a solution (both
+     *         included), or an empty list if there is no solution
+     */
+    LinkedList<Configuration> search(Configuration initialConfiguration);
+
+    /**
+     * number of neighbors generated by the last search
+     * @return long
+     */
+    long getGenerated();
+
+    /**
+     * number of configurations expanded by the last search
+     * @return long
+     */
+    long getExpanded();
+
+    /**
+     * number of neighbors generated by the last search that it had already seen
+     * @return long, 0 if the strategy does not count them
+     */
+    long getDuplicates();
+
+    /**
+     * most configurations the last search had waiting to be expanded at once
+     * @return long, 0 if the strategy does not track it
+     */
+    long getPeakFrontier();
+
+    /**
+     * deepest configuration the last search expanded, in moves from the start
+     * @return int, 0 if the strategy does not track it
+     */
+    int getDepth();
+
+    /**
+     * checks if the path the last search returned is a shortest one, so it
+     * can be kept for searches that must return one
+     * @return boolean, false unless the strategy guarantees it
+     */
+    default boolean isShortest(){
+        return false;
+    }
+}
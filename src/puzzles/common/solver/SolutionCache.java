@@ -0,0 +1,409 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Solutions kept on disk between runs, so a puzzle solved once is not
+ * searched again. A puzzle is keyed by a 64 bit hash of its canonical
+ * encoding, its class and its text, and its solution is kept as the
+ * position of each next configuration among the neighbors of the one
+ * before, two bytes per move. For a {@link SymmetricConfiguration} the
+ * moves are those from the canonical board, the one its canonical encoding
+ * decodes to, so every rotation and reflection of a board shares one entry.
+ * A hit is replayed from the canonical board and followed back onto the
+ * board asked about one move at a time, taking at each step the neighbor
+ * that is an image of the next canonical one.
+ * <p>
+ * The file is a header followed by records appended one after the other:
+ * the key, the number of moves and the moves, then a CRC32 of all three. A
+ * record with -1 moves marks a hit, which is what keeps the least recently
+ * used order across runs. Reading stops at the first record that is cut
+ * short or fails its checksum and the file is cut back to the records
+ * before it. When there are more than twice as many records as entries the
+ * file is rewritten with only the live entries.
+ * <p>
+ * Every solution is replayed against the board before it is returned, so a
+ * stale entry, or one from another puzzle with the same hash, is dropped
+ * instead of used. Only solutions are kept: that a puzzle has none cannot
+ * be checked without searching it again. The {@link Solver} only puts
+ * solutions its strategy guarantees are shortest ones, since a hit is
+ * returned to every strategy.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class SolutionCache {
+    /** default number of solutions kept */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /** the first bytes of the file, "PSC" and the format version */
+    private static final int MAGIC = 0x50534301;
+    /** number of moves of a record that marks a hit */
+    private static final int TOUCH = -1;
+    /** key and number of moves, before the moves */
+    private static final int RECORD_HEADER = Long.BYTES + Integer.BYTES;
+
+    private final Path file;
+    private final int maxEntries;
+    /** the moves of every solution, least recently used first */
+    private final LinkedHashMap<Long, short[]> entries;
+    /** number of records in the file */
+    private int records;
+
+    /**
+     * SolutionCache constructor, reads the file if there is one
+     * @param file where the solutions are kept, created when missing
+     * @param maxEntries the most solutions kept, the least recently used go first
+     * @throws IOException if the file cannot be read or created
+     */
+    public SolutionCache(Path file, int maxEntries) throws IOException {
+        this.file = file;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        read();
+    }
+
+    /**
+     * the file used when no other is given, in the user's home directory
+     * @return Path
+     */
+    public static Path defaultFile(){
+        return Path.of(System.getProperty("user.home"), ".puzzles", "solutions.cache");
+    }
+
+    /**
+     * looks up the solution of a configuration and replays it
+     * @param initial the configuration to start from
+     * @return the path from the configuration to a solution (both included),
+     *         or null if there is none in the cache or it does not replay
+     * @throws IOException if the hit cannot be recorded
+     */
+    public synchronized LinkedList<Configuration> get(Configuration initial) throws IOException {
+        if (!(initial instanceof EncodableConfiguration encodable)) {
+            return null;
+        }
+        EncodableConfiguration canonical = canonical(encodable);
+        long key = key(canonical);
+        short[] moves = this.entries.get(key);
+        if (moves == null) {
+            return null;
+        }
+        LinkedList<Configuration> path;
+        if (canonical.equals(initial)) {
+            path = replay(initial, moves);
+        } else {
+            LinkedList<Configuration> canonicalPath = replay(canonical, moves);
+            path = canonicalPath == null ? null : follow(initial, canonicalPath);
+        }
+        if (path == null || !path.getLast().isSolution()) {
+            // stale, or another puzzle with the same hash
+            this.entries.remove(key);
+            return null;
+        }
+        append(key, null);
+        return path;
+    }
+
+    /**
+     * keeps the solution of a configuration
+     * @param path the path from the configuration to a solution (both
+     *             included), as returned by a search
+     * @throws IOException if the solution cannot be written
+     */
+    public synchronized void put(List<Configuration> path) throws IOException {
+        if (path.isEmpty() || !(path.get(0) instanceof EncodableConfiguration initial)) {
+            return;
+        }
+        EncodableConfiguration canonical = canonical(initial);
+        if (!canonical.equals(initial)) {
+            path = follow(canonical, path);
+            if (path == null) {
+                return;
+            }
+        }
+        short[] moves = new short[path.size() - 1];
+        for (int i = 0; i < moves.length; i++) {
+            int index = indexOf(path.get(i), path.get(i + 1));
+            if (index < 0 || index > Character.MAX_VALUE) {
+                // not a neighbor, or too many of them to fit in a move
+                return;
+            }
+            moves[i] = (short) index;
+        }
+        long key = key(canonical);
+        this.entries.put(key, moves);
+        evict();
+        append(key, moves);
+    }
+
+    /**
+     * number of solutions kept
+     * @return int
+     */
+    public synchronized int size(){
+        return this.entries.size();
+    }
+
+    /**
+     * the key of a canonical configuration: its encoding, class and text
+     * hashed together, the text telling apart boards whose encodings only
+     * differ in their size
+     * @param configuration the configuration, as returned by canonical
+     * @return long
+     */
+    private static long key(EncodableConfiguration configuration){
+        long[] words = words(configuration);
+        long hash = StateStore.hash(words, 0, words.length);
+        hash = StateStore.mix(hash ^ configuration.getClass().getName().hashCode());
+        return StateStore.mix(hash ^ configuration.toString().hashCode());
+    }
+
+    /**
+     * the board the solutions of a configuration are kept from
+     * @param configuration the configuration
+     * @return the board its canonical encoding decodes to for a symmetric
+     *         configuration, the configuration itself otherwise
+     */
+    private static EncodableConfiguration canonical(EncodableConfiguration configuration){
+        if (!(configuration instanceof SymmetricConfiguration)) {
+            return configuration;
+        }
+        return (EncodableConfiguration) configuration.decode(words(configuration), 0);
+    }
+
+    /**
+     * the encoding of a configuration, canonical when it is symmetric, so
+     * images of each other give equal words
+     * @param configuration the configuration
+     * @return long[]
+     */
+    private static long[] words(EncodableConfiguration configuration){
+        long[] words = new long[configuration.encodedWords()];
+        if (configuration instanceof SymmetricConfiguration symmetric) {
+            symmetric.encodeCanonical(words, 0);
+        } else {
+            configuration.encode(words, 0);
+        }
+        return words;
+    }
+
+    /**
+     * follows a path from an image of its first configuration, taking at
+     * every step the neighbor that is an image of the next configuration of
+     * the path. Symmetries keep moves, so one is always there
+     * @param start an image of the first configuration of the path
+     * @param path the path to follow, every configuration encodable
+     * @return LinkedList<Configuration>, the path from start, or null if a
+     *         step has no image among the neighbors
+     */
+    private static LinkedList<Configuration> follow(Configuration start, List<Configuration> path){
+        LinkedList<Configuration> followed = new LinkedList<>();
+        Configuration current = start;
+        followed.add(current);
+        for (Configuration step : path.subList(1, path.size())) {
+            long[] target = words((EncodableConfiguration) step);
+            Configuration next = null;
+            for (Configuration nbr : current.getNeighbors()) {
+                if (Arrays.equals(words((EncodableConfiguration) nbr), target)) {
+                    next = nbr;
+                    break;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            current = next;
+            followed.add(current);
+        }
+        return followed;
+    }
+
+    /**
+     * the position of a configuration among the neighbors of another
+     * @param configuration the configuration whose neighbors are searched
+     * @param target the neighbor to find
+     * @return int, or -1 if it is not a neighbor
+     */
+    private static int indexOf(Configuration configuration, Configuration target){
+        int index = 0;
+        for (Configuration nbr : configuration.getNeighbors()) {
+            if (nbr.equals(target)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * follows the moves of a solution from a configuration
+     * @param initial the configuration to start from
+     * @param moves the position of every next configuration among the neighbors
+     * @return the path, or null if a move does not exist or the path does
+     *         not end at a solution
+     */
+    private static LinkedList<Configuration> replay(Configuration initial, short[] moves){
+        LinkedList<Configuration> path = new LinkedList<>();
+        Configuration current = initial;
+        path.add(current);
+        for (short move : moves) {
+            int index = Short.toUnsignedInt(move);
+            Configuration next = null;
+            for (Configuration nbr : current.getNeighbors()) {
+                if (index-- == 0) {
+                    next = nbr;
+                    break;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            current = next;
+            path.add(current);
+        }
+        return current.isSolution() ? path : null;
+    }
+
+    /**
+     * drops the least recently used solutions over the limit
+     */
+    private void evict(){
+        Iterator<Map.Entry<Long, short[]>> eldest = this.entries.entrySet().iterator();
+        while (this.entries.size() > this.maxEntries) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * reads every record of the file, cutting off a damaged end. A missing
+     * or empty file is started as an empty cache
+     * @throws IOException if the file cannot be read, or is not a solution
+     *                     cache and is left as it is
+     */
+    private void read() throws IOException {
+        if (!Files.exists(this.file) || Files.size(this.file) == 0) {
+            rewrite();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE, channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            buffer.flip();
+            if (buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException(this.file + " is not a solution cache");
+            }
+            int good = buffer.position();
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= RECORD_HEADER) {
+                int start = buffer.position();
+                long key = buffer.getLong();
+                int count = buffer.getInt();
+                if (count < TOUCH || buffer.remaining() < 2L * Math.max(0, count) + Integer.BYTES) {
+                    break;
+                }
+                short[] moves = count == TOUCH ? null : new short[count];
+                for (int i = 0; moves != null && i < count; i++) {
+                    moves[i] = buffer.getShort();
+                }
+                crc.reset();
+                crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+                if ((int) crc.getValue() != buffer.getInt()) {
+                    break;
+                }
+                if (moves != null) {
+                    this.entries.put(key, moves);
+                    evict();
+                } else {
+                    this.entries.get(key);
+                }
+                this.records++;
+                good = buffer.position();
+            }
+            if (good < channel.size()) {
+                channel.truncate(good);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * appends a record to the file
+     * @param key the key of the solution
+     * @param moves the moves, or null for a hit
+     * @throws IOException if the record cannot be written
+     */
+    private void append(long key, short[] moves) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(record(key, moves));
+        }
+        this.records++;
+        compactIfNeeded();
+    }
+
+    /**
+     * rewrites the file when dead records take more than half of it
+     * @throws IOException if the file cannot be written
+     */
+    private void compactIfNeeded() throws IOException {
+        if (this.records > 2 * Math.max(16, this.entries.size())) {
+            rewrite();
+        }
+    }
+
+    /**
+     * writes the live entries to a new file, least recently used first so
+     * reading it back gives the same order, and puts it in place of the old
+     * @throws IOException if the file cannot be written
+     */
+    private void rewrite() throws IOException {
+        Path temporary = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip());
+            for (Map.Entry<Long, short[]> entry : this.entries.entrySet()) {
+                channel.write(record(entry.getKey(), entry.getValue()));
+            }
+        }
+        Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.records = this.entries.size();
+    }
+
+    /**
+     * lays out one record
+     * @param key the key of the solution
+     * @param moves the moves, or null for a hit
+     * @return ByteBuffer ready to be written
+     */
+    private static ByteBuffer record(long key, short[] moves){
+        int count = moves == null ? TOUCH : moves.length;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + 2 * Math.max(0, count) + Integer.BYTES);
+        buffer.putLong(key).putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putShort(moves[i]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().flip());
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,197 @@
+package puzzles.common.solver;
+
+import puzzles.common.Observer;
+
+/**
+ * One solve to be run by {@link Solver#solve(SolveRequest)}: the puzzle,
+ * how much the search may spend on it and who wants to hear how it is
+ * going. A search stops when any limit is reached:
+ * <ul>
+ *     <li>a timeout, wall time from the start of the solve</li>
+ *     <li>a number of configurations expanded</li>
+ *     <li>a number of bytes of heap in use, for the whole JVM, so garbage
+ *     not yet collected counts too</li>
+ *     <li>{@link #cancel()}, from any thread</li>
+ * </ul>
+ * The limits are checked every {@link #CHECK_INTERVAL_MILLIS} milliseconds
+ * and a search stops at its next interrupt check after that, so it can go a
+ * little past them. A request is used for one solve.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class SolveRequest {
+    /** milliseconds between checks of the limits */
+    public static final long CHECK_INTERVAL_MILLIS = 10;
+
+    private final Configuration initialConfiguration;
+    /** milliseconds the solve may take, 0 for no limit */
+    private long timeoutMillis;
+    /** configurations the search may expand, 0 for no limit */
+    private long maxNodes;
+    /** bytes of heap the JVM may have in use, 0 for no limit */
+    private long maxBytes;
+    /** gets the stats of the running search, or null */
+    private Observer<SolveRequest, SearchStats> progress;
+    /** milliseconds between progress updates */
+    private long progressMillis;
+
+    private volatile boolean cancelled;
+    /** the thread running the solve, null when none is */
+    private Thread thread;
+    /** whether the thread was interrupted by this request */
+    private boolean interrupted;
+
+    /**
+     * SolveRequest constructor, no limits
+     * @param initialConfiguration the puzzle
+     */
+    public SolveRequest(Configuration initialConfiguration){
+        this.initialConfiguration = initialConfiguration;
+    }
+
+    /**
+     * getter for initialConfiguration
+     * @return Configuration
+     */
+    public Configuration getInitialConfiguration(){
+        return this.initialConfiguration;
+    }
+
+    /**
+     * sets how long the solve may take
+     * @param timeoutMillis milliseconds, 0 for no limit
+     * @return this request
+     */
+    public SolveRequest setTimeout(long timeoutMillis){
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * getter for timeoutMillis
+     * @return long, 0 for no limit
+     */
+    public long getTimeout(){
+        return this.timeoutMillis;
+    }
+
+    /**
+     * sets how many configurations the search may expand
+     * @param maxNodes configurations, 0 for no limit
+     * @return this request
+     */
+    public SolveRequest setMaxNodes(long maxNodes){
+        this.maxNodes = maxNodes;
+        return this;
+    }
+
+    /**
+     * getter for maxNodes
+     * @return long, 0 for no limit
+     */
+    public long getMaxNodes(){
+        return this.maxNodes;
+    }
+
+    /**
+     * sets how many bytes of heap the JVM may have in use while searching
+     * @param maxBytes bytes, 0 for no limit
+     * @return this request
+     */
+    public SolveRequest setMaxBytes(long maxBytes){
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * getter for maxBytes
+     * @return long, 0 for no limit
+     */
+    public long getMaxBytes(){
+        return this.maxBytes;
+    }
+
+    /**
+     * sets who gets the stats of the running search, called from another
+     * thread and never after the solve has returned
+     * @param progress the observer, or null for none
+     * @param intervalMillis milliseconds between updates
+     * @return this request
+     */
+    public SolveRequest setProgress(Observer<SolveRequest, SearchStats> progress, long intervalMillis){
+        this.progress = progress;
+        this.progressMillis = Math.max(1, intervalMillis);
+        return this;
+    }
+
+    /**
+     * getter for progress
+     * @return the observer, or null
+     */
+    public Observer<SolveRequest, SearchStats> getProgress(){
+        return this.progress;
+    }
+
+    /**
+     * getter for progressMillis
+     * @return long
+     */
+    public long getProgressInterval(){
+        return this.progressMillis;
+    }
+
+    /**
+     * checks if the request has anything to watch while the search runs
+     * @return boolean
+     */
+    boolean isWatched(){
+        return this.timeoutMillis > 0 || this.maxNodes > 0 || this.maxBytes > 0 || this.progress != null;
+    }
+
+    /**
+     * stops the solve, or keeps it from starting. Safe to call from any
+     * thread, at any time.
+     */
+    public void cancel(){
+        this.cancelled = true;
+        stop();
+    }
+
+    /**
+     * checks if the request was cancelled
+     * @return boolean
+     */
+    public boolean isCancelled(){
+        return this.cancelled;
+    }
+
+    /**
+     * records the thread about to run the solve
+     * @param thread the thread
+     */
+    synchronized void attach(Thread thread){
+        this.thread = thread;
+        this.interrupted = false;
+    }
+
+    /**
+     * interrupts the thread running the solve, if one still is
+     */
+    synchronized void stop(){
+        if (this.thread != null && !this.interrupted) {
+            this.interrupted = true;
+            this.thread.interrupt();
+        }
+    }
+
+    /**
+     * forgets the thread once the solve is over, clearing an interrupt
+     * this request sent so it does not reach whatever the thread does next
+     */
+    synchronized void detach(){
+        if (this.interrupted) {
+            Thread.interrupted();
+        }
+        this.thread = null;
+    }
+}
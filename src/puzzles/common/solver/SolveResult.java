@@ -0,0 +1,47 @@
+package puzzles.common.solver;
+
+import java.util.LinkedList;
+
+/**
+ * How a {@link SolveRequest} ended.
+ * @param status why the search stopped
+ * @param path the path from the initial configuration to a solution (both
+ *             included), empty unless the status is SOLVED
+ * @param stats what the search did
+ * @param reason which limit was reached, or null unless the status is BUDGET_EXHAUSTED
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public record SolveResult(Status status, LinkedList<Configuration> path, SearchStats stats, String reason) {
+
+    /**
+     * why a search stopped
+     */
+    public enum Status {
+        /** a solution was found */
+        SOLVED,
+        /** the whole puzzle was searched and there is no solution */
+        UNSOLVABLE,
+        /** a limit of the request was reached first, so there may or may not be a solution */
+        BUDGET_EXHAUSTED,
+        /** the request was cancelled */
+        CANCELLED
+    }
+
+    /**
+     * a line for the user when there is no path
+     * @return String
+     */
+    public String message(){
+        switch (this.status) {
+            case SOLVED:
+                return "Solved";
+            case UNSOLVABLE:
+                return "No solution";
+            case BUDGET_EXHAUSTED:
+                return "Search stopped: " + this.reason;
+            default:
+                return "Search cancelled";
+        }
+    }
+}
@@ -1,87 +1,219 @@
 package puzzles.common.solver;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Gonzalo Estrella && Aniruddha Roy
  */
 
 public class Solver {
+    /** the search used by solve */
+    private final SearchStrategy strategy;
+    /** solutions kept between runs, or null */
+    private final SolutionCache cache;
+    /** what the last solve did, written by the solving thread */
+    private volatile SearchStats stats;
 
     /**
-     * Solver constructor
+     * Solver constructor, solves with breadth first search
      */
     public Solver(){
+        this(new BreadthFirstSearch());
     }
 
     /**
-     * Uses BFS to get the shortest path to the solution;
+     * Solver constructor
+     * @param strategy the search used by solve
+     */
+    public Solver(SearchStrategy strategy){
+        this(strategy, null);
+    }
+
+    /**
+     * Solver constructor
+     * @param strategy the search used by solve
+     * @param cache solutions kept between runs, looked up before searching
+     *              and given every solution found, or null
+     */
+    public Solver(SearchStrategy strategy, SolutionCache cache){
+        this.strategy = strategy;
+        this.cache = cache;
+    }
+
+    /**
+     * Uses the solver's strategy to get a path to the solution. With a
+     * cache the solution is looked up first, and a solution found by
+     * searching is kept when the strategy guarantees it is a shortest one,
+     * since every later search of the puzzle is handed it. A cache that cannot be read or written only costs
+     * the search. What the search did is kept for {@link #getStats()}.
      * @param initialConfiguration
      * @return
      */
     public LinkedList<Configuration> solve(Configuration initialConfiguration){
-        int totalConfigs = 1;
-        int uniqueConfigs = 1;
-        LinkedList<Configuration> path = new LinkedList<>();
-        List<Configuration> queue = new LinkedList<>();
-        Map<Configuration, Configuration> predecessors = new HashMap<>();
-        queue.add(initialConfiguration);
-        predecessors.put(initialConfiguration, initialConfiguration);
-        while (!queue.isEmpty()) {
-            Configuration current = queue.remove(0);
-            uniqueConfigs++;
-            if (current.isSolution()) {
-                if(predecessors.containsKey(current)) {
-                    Configuration currNode = current;
-                    while (!currNode.equals(initialConfiguration)) {
-                        path.add(0, currNode);
-                        currNode = predecessors.get(currNode);
-                    }
-                    path.add(0, initialConfiguration);
+        return solve(new SolveRequest(initialConfiguration)).path();
+    }
+
+    /**
+     * Like {@link #solve(Configuration)}, within the limits of a request.
+     * While the search runs a daemon thread checks the limits, hands the
+     * stats so far to the request's progress observer, and interrupts the
+     * search when a limit is reached. An interrupt from anywhere else also
+     * stops the search, and is left set.
+     * @param request the puzzle and the limits
+     * @return SolveResult, the path is empty unless a solution was found
+     */
+    public SolveResult solve(SolveRequest request){
+        Configuration initialConfiguration = request.getInitialConfiguration();
+        Thread thread = Thread.currentThread();
+        long start = System.nanoTime();
+        long allocated = SearchStats.allocatedBytes(thread);
+        if (!request.isCancelled() && this.cache != null) {
+            try {
+                LinkedList<Configuration> cached = this.cache.get(initialConfiguration);
+                if (cached != null) {
+                    this.stats = new SearchStats(0, 0, 0, 0, cached.size() - 1, System.nanoTime() - start,
+                            allocatedSince(thread, allocated), true);
+                    return new SolveResult(SolveResult.Status.SOLVED, cached, this.stats, null);
+                }
+            } catch (IOException e) {
+                System.err.println("Solution cache: " + e.getMessage());
+            }
+        }
+        AtomicReference<String> exhausted = new AtomicReference<>();
+        LinkedList<Configuration> path = null;
+        ScheduledExecutorService watchdog = null;
+        boolean searched = false;
+        request.attach(thread);
+        try {
+            if (!request.isCancelled()) {
+                if (request.isWatched()) {
+                    watchdog = watch(request, thread, start, allocated, exhausted);
                 }
-                break;
+                searched = true;
+                path = this.strategy.search(initialConfiguration);
             }
-            Collection<Configuration> neighbors = current.getNeighbors();
-            for (Configuration nbr : neighbors) {
-                if(!predecessors.containsKey(nbr)) {
-                    predecessors.put(nbr, current);
-                    queue.add(nbr);
+        } catch (CancellationException e) {
+            // stopped by the request or an interrupt, told apart below
+        } finally {
+            if (watchdog != null) {
+                watchdog.shutdownNow();
+                try {
+                    // a check already running finishes before the result is made
+                    watchdog.awaitTermination(SolveRequest.CHECK_INTERVAL_MILLIS + request.getProgressInterval(),
+                            TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
-                totalConfigs++;
             }
+            request.detach();
+            long elapsed = System.nanoTime() - start;
+            // the strategy still holds the counters of its last search when this one never started
+            this.stats = searched ? new SearchStats(this.strategy, elapsed, allocatedSince(thread, allocated))
+                    : new SearchStats(0, 0, 0, 0, 0, elapsed, allocatedSince(thread, allocated), false);
         }
-        System.out.println("Total configs: "+ totalConfigs);
-        System.out.println("Unique configs: "+ uniqueConfigs);
-        return path;
+        if (path == null) {
+            boolean budget = !request.isCancelled() && exhausted.get() != null;
+            return new SolveResult(budget ? SolveResult.Status.BUDGET_EXHAUSTED : SolveResult.Status.CANCELLED,
+                    new LinkedList<>(), this.stats, budget ? exhausted.get() : null);
+        }
+        if (path.isEmpty()) {
+            return new SolveResult(SolveResult.Status.UNSOLVABLE, path, this.stats, null);
+        }
+        // a strategy that answered from what it already knew found nothing new to keep
+        if (this.cache != null && this.strategy.getExpanded() > 0 && this.strategy.isShortest()) {
+            try {
+                this.cache.put(path);
+            } catch (IOException e) {
+                System.err.println("Solution cache: " + e.getMessage());
+            }
+        }
+        return new SolveResult(SolveResult.Status.SOLVED, path, this.stats, null);
     }
 
-    public LinkedList<Configuration> bfs(Configuration initialConfiguration){
-        LinkedList<Configuration> path = new LinkedList<>();
-        List<Configuration> queue = new LinkedList<>();
-        Map<Configuration, Configuration> predecessors = new HashMap<>();
-        queue.add(initialConfiguration);
-        predecessors.put(initialConfiguration, initialConfiguration);
-        while (!queue.isEmpty()) {
-            Configuration current = queue.remove(0);
-            if (current.isSolution()) {
-                if(predecessors.containsKey(current)) {
-                    Configuration currNode = current;
-                    while (!currNode.equals(initialConfiguration)) {
-                        path.add(0, currNode);
-                        currNode = predecessors.get(currNode);
-                    }
-                    path.add(0, initialConfiguration);
-                }
-                break;
+    /**
+     * starts the thread that watches a running search
+     * @param request the limits and the progress observer
+     * @param thread the thread running the search
+     * @param start System.nanoTime() at the start of the solve
+     * @param allocated bytes the thread had allocated at the start
+     * @param exhausted gets the limit that was reached
+     * @return ScheduledExecutorService running the checks
+     */
+    private ScheduledExecutorService watch(SolveRequest request, Thread thread, long start, long allocated,
+                                           AtomicReference<String> exhausted){
+        boolean limited = request.getTimeout() > 0 || request.getMaxNodes() > 0 || request.getMaxBytes() > 0;
+        long period = request.getProgress() == null ? SolveRequest.CHECK_INTERVAL_MILLIS
+                : limited ? Math.min(SolveRequest.CHECK_INTERVAL_MILLIS, request.getProgressInterval())
+                : request.getProgressInterval();
+        long[] lastProgress = {start};
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread daemon = new Thread(runnable, "solve-watchdog");
+            daemon.setDaemon(true);
+            return daemon;
+        });
+        watchdog.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            SearchStats sample = new SearchStats(this.strategy, now - start, allocatedSince(thread, allocated));
+            String limit = null;
+            if (request.getTimeout() > 0 && TimeUnit.NANOSECONDS.toMillis(now - start) >= request.getTimeout()) {
+                limit = "time limit of " + request.getTimeout() + " ms reached";
+            } else if (request.getMaxNodes() > 0 && sample.getExpanded() >= request.getMaxNodes()) {
+                limit = "limit of " + request.getMaxNodes() + " configurations reached";
+            } else if (request.getMaxBytes() > 0 && heapUsed() >= request.getMaxBytes()) {
+                limit = "memory limit of " + request.getMaxBytes() + " bytes reached";
             }
-            Collection<Configuration> neighbors = current.getNeighbors();
-            for (Configuration nbr : neighbors) {
-                if(!predecessors.containsKey(nbr)) {
-                    predecessors.put(nbr, current);
-                    queue.add(nbr);
-                }
+            if (limit != null && exhausted.compareAndSet(null, limit)) {
+                request.stop();
             }
-        }
-        return path;
+            if (request.getProgress() != null
+                    && TimeUnit.NANOSECONDS.toMillis(now - lastProgress[0]) >= request.getProgressInterval()) {
+                lastProgress[0] = now;
+                request.getProgress().update(request, sample);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+        return watchdog;
+    }
+
+    /**
+     * bytes of heap the JVM has in use
+     * @return long
+     */
+    private static long heapUsed(){
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * getter for the stats of the last solve
+     * @return SearchStats, or null before the first solve
+     */
+    public SearchStats getStats(){
+        return this.stats;
+    }
+
+    /**
+     * bytes a thread allocated since an earlier count
+     * @param thread the thread
+     * @param before the earlier count
+     * @return long, or -1 if the JVM cannot tell
+     */
+    private static long allocatedSince(Thread thread, long before){
+        long after = SearchStats.allocatedBytes(thread);
+        return before < 0 || after < 0 ? -1 : after - before;
+    }
+
+    /**
+     * Uses BFS to get the shortest path to the solution;
+     * @param initialConfiguration
+     * @return
+     */
+    public LinkedList<Configuration> bfs(Configuration initialConfiguration){
+        return new BreadthFirstSearch().search(initialConfiguration);
     }
 }
\ No newline at end of file
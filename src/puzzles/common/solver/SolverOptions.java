@@ -0,0 +1,210 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line options shared by the puzzle mains. Options have the form
+ * {@code --name=value} (or just {@code --name}) and may appear anywhere on
+ * the command line; everything else is kept as a positional argument.
+ * <ul>
+ *     <li>{@code --strategy=bfs|dfs|iddfs|best|astar|idastar|bidirectional|compact|external|parallel|monotone|parallel-monotone} picks the search strategy, default bfs</li>
+ *     <li>{@code --table=n} transposition table entries for idastar, default none, or dead states remembered by monotone and parallel-monotone, default 2^20</li>
+ *     <li>{@code --offheap} keeps the states of the compact strategy in memory mapped files</li>
+ *     <li>{@code --symmetry=false} makes the compact strategy store rotations and reflections of a board separately</li>
+ *     <li>{@code --capacity=n} most states the off heap store holds, default 2^26</li>
+ *     <li>{@code --spill-dir=dir} where the off heap and external files go, default the temporary directory</li>
+ *     <li>{@code --buffer=n} states the external strategy sorts in memory at once, default 2^20</li>
+ *     <li>{@code --threads=n} number of workers for the parallel strategies, default every processor</li>
+ *     <li>{@code --deterministic} makes the parallel strategy return the same path on every run</li>
+ *     <li>{@code --cache[=file]} keeps solutions between runs, in ~/.puzzles/solutions.cache unless a file is given</li>
+ *     <li>{@code --cache-size=n} most solutions the cache keeps, default 1024</li>
+ *     <li>{@code --timeout=seconds} stops the search after this long, default no limit</li>
+ *     <li>{@code --max-nodes=n} stops the search after expanding n configurations, default no limit</li>
+ *     <li>{@code --max-memory=bytes} stops the search once the heap in use reaches this, default no limit</li>
+ *     <li>{@code --stats[=ms]} prints every counter of the search, and with ms those of the running search every ms milliseconds</li>
+ * </ul>
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class SolverOptions {
+    private final Map<String, String> options;
+    private final String[] arguments;
+
+    /**
+     * SolverOptions constructor
+     * @param options the parsed options
+     * @param arguments the positional arguments
+     */
+    private SolverOptions(Map<String, String> options, String[] arguments){
+        this.options = options;
+        this.arguments = arguments;
+    }
+
+    /**
+     * splits the command line into options and positional arguments
+     * @param args the command line arguments
+     * @return SolverOptions
+     */
+    public static SolverOptions parse(String[] args){
+        Map<String, String> options = new HashMap<>();
+        List<String> arguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int equals = arg.indexOf('=');
+                if (equals < 0) {
+                    options.put(arg.substring(2), "true");
+                } else {
+                    options.put(arg.substring(2, equals), arg.substring(equals + 1));
+                }
+            } else {
+                arguments.add(arg);
+            }
+        }
+        return new SolverOptions(options, arguments.toArray(new String[0]));
+    }
+
+    /**
+     * getter for the positional arguments
+     * @return String[]
+     */
+    public String[] getArguments(){
+        return this.arguments;
+    }
+
+    /**
+     * getter for an option
+     * @param name the option name, without the leading dashes
+     * @param defaultValue returned when the option was not given
+     * @return String
+     */
+    public String get(String name, String defaultValue){
+        return this.options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * creates the search strategy selected with --strategy
+     * @return SearchStrategy
+     */
+    public SearchStrategy getStrategy(){
+        String name = get("strategy", "bfs");
+        switch (name) {
+            case "bfs":
+                return new BreadthFirstSearch();
+            case "dfs":
+                return new DepthFirstSearch();
+            case "iddfs":
+                return new IterativeDeepeningSearch();
+            case "best":
+                return new BestFirstSearch();
+            case "astar":
+                return new AStarSearch();
+            case "idastar":
+                return new IterativeDeepeningAStar(Integer.parseInt(get("table", "0")));
+            case "bidirectional":
+                return new BidirectionalSearch();
+            case "compact":
+                boolean symmetry = Boolean.parseBoolean(get("symmetry", "true"));
+                if (Boolean.parseBoolean(get("offheap", "false"))) {
+                    return new CompactBreadthFirstSearch(AbstractSearch.DEFAULT_EXPECTED_STATES,
+                            MappedStateStore.factory(Path.of(get("spill-dir", System.getProperty("java.io.tmpdir"))),
+                                    Integer.parseInt(get("capacity", String.valueOf(1 << 26)))), symmetry);
+                }
+                int expectedStates = AbstractSearch.DEFAULT_EXPECTED_STATES;
+                return new CompactBreadthFirstSearch(expectedStates,
+                        width -> new StateTable(width, expectedStates), symmetry);
+            case "external":
+                return new ExternalBreadthFirstSearch(Path.of(get("spill-dir", System.getProperty("java.io.tmpdir"))),
+                        Integer.parseInt(get("buffer", String.valueOf(1 << 20))));
+            case "parallel":
+                return new ParallelBreadthFirstSearch(
+                        Integer.parseInt(get("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                        Boolean.parseBoolean(get("deterministic", "false")));
+            case "monotone":
+                return new MonotoneDepthFirstSearch(Integer.parseInt(get("table",
+                        String.valueOf(MonotoneDepthFirstSearch.DEFAULT_TABLE_CAPACITY))));
+            case "parallel-monotone":
+                return new ParallelDepthFirstSearch(
+                        Integer.parseInt(get("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                        Integer.parseInt(get("table", String.valueOf(MonotoneDepthFirstSearch.DEFAULT_TABLE_CAPACITY))));
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    /**
+     * opens the solution cache selected with --cache
+     * @return SolutionCache, or null if --cache was not given
+     * @throws IOException if the cache file cannot be read or created
+     */
+    public SolutionCache getCache() throws IOException {
+        String name = get("cache", "false");
+        if (name.equals("false")) {
+            return null;
+        }
+        Path file = name.equals("true") ? SolutionCache.defaultFile() : Path.of(name);
+        return new SolutionCache(file, Integer.parseInt(get("cache-size",
+                String.valueOf(SolutionCache.DEFAULT_MAX_ENTRIES))));
+    }
+
+    /**
+     * creates a solver using the selected strategy and cache, solving
+     * without the cache if it cannot be opened
+     * @return Solver
+     */
+    public Solver newSolver(){
+        SolutionCache cache = null;
+        try {
+            cache = getCache();
+        } catch (IOException e) {
+            System.err.println("Solution cache: " + e.getMessage());
+        }
+        return new Solver(getStrategy(), cache);
+    }
+
+    /**
+     * creates a request for a puzzle with the limits given by --timeout,
+     * --max-nodes and --max-memory
+     * @param initialConfiguration the puzzle
+     * @return SolveRequest
+     */
+    public SolveRequest newRequest(Configuration initialConfiguration){
+        return new SolveRequest(initialConfiguration)
+                .setTimeout(TimeUnit.SECONDS.toMillis(Long.parseLong(get("timeout", "0"))))
+                .setMaxNodes(Long.parseLong(get("max-nodes", "0")))
+                .setMaxBytes(Long.parseLong(get("max-memory", "0")));
+    }
+
+    /**
+     * solves a puzzle the way the command line mains do: prints how many
+     * configurations the search saw, or that the solution was cached, and
+     * with --stats every counter of the search. --stats=ms also prints the
+     * counters of the running search to stderr every ms milliseconds.
+     * @param solver the solver from newSolver
+     * @param initialConfiguration the puzzle
+     * @return SolveResult
+     */
+    public SolveResult solve(Solver solver, Configuration initialConfiguration){
+        String stats = get("stats", "false");
+        SolveRequest request = newRequest(initialConfiguration);
+        if (!stats.equals("true") && !stats.equals("false")) {
+            request.setProgress((source, sample) -> System.err.println(sample), Long.parseLong(stats));
+        }
+        SolveResult result = solver.solve(request);
+        if (result.stats().isCached()) {
+            System.out.println("Cached solution");
+        } else {
+            System.out.println("Total configs: " + result.stats().getTotal());
+            System.out.println("Unique configs: " + result.stats().getUnique());
+        }
+        if (!stats.equals("false")) {
+            System.out.println(result.stats());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+package puzzles.common.solver;
+
+/**
+ * Visited states of a compact search, stored as fixed width keys. Every state
+ * gets an index in the order it was added and remembers the index of its
+ * parent and the move that led to it from the parent, so a breadth first
+ * search can use the indexes as its queue, each layer of the search is a
+ * range of indexes, and a path is rebuilt by replaying the moves instead of
+ * keeping a parent board for every state.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public interface StateStore extends AutoCloseable {
+    /** parent of a state that has none */
+    int NO_PARENT = -1;
+    /** move of a state that was not reached by a packed move */
+    int NO_MOVE = -1;
+
+    /**
+     * creates the store a compact search keeps its states in
+     */
+    interface Factory {
+        /**
+         * creates an empty store
+         * @param width number of words per key
+         * @return StateStore
+         */
+        StateStore create(int width);
+    }
+
+    /**
+     * adds a state if it is not in the store yet
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @param parent index of the parent, or NO_PARENT
+     * @param move the move from the parent to this state, or NO_MOVE
+     * @return the index of the new state, or -1 if it was already there
+     */
+    int add(long[] key, int offset, int parent, int move);
+
+    /**
+     * adds a state that was not reached by a packed move
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @param parent index of the parent, or NO_PARENT
+     * @return the index of the new state, or -1 if it was already there
+     */
+    default int add(long[] key, int offset, int parent){
+        return add(key, offset, parent, NO_MOVE);
+    }
+
+    /**
+     * finds a state
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @return the index of the state, or -1 if it is not in the store
+     */
+    int indexOf(long[] key, int offset);
+
+    /**
+     * copies the key of a state
+     * @param index the index of the state
+     * @param dest where the words are written
+     * @param offset index of the first word to write
+     */
+    void get(int index, long[] dest, int offset);
+
+    /**
+     * getter for the parent of a state
+     * @param index the index of the state
+     * @return int, NO_PARENT for a state without a parent
+     */
+    int parent(int index);
+
+    /**
+     * getter for the move that led to a state from its parent
+     * @param index the index of the state
+     * @return int, NO_MOVE for a state added without one
+     */
+    int move(int index);
+
+    /**
+     * number of states in the store
+     * @return int
+     */
+    int size();
+
+    /**
+     * number of words per key
+     * @return int
+     */
+    int width();
+
+    /**
+     * releases whatever the store holds outside the Java heap
+     */
+    @Override
+    default void close(){
+    }
+
+    /**
+     * hashes a key, every bit of every word affects the result
+     * @param key the words
+     * @param offset index of the first word
+     * @param width number of words
+     * @return long
+     */
+    static long hash(long[] key, int offset, int width){
+        long hash = 0;
+        for (int i = 0; i < width; i++) {
+            hash = mix(hash ^ key[offset + i]);
+        }
+        return hash;
+    }
+
+    /**
+     * the SplitMix64 finalizer, a bijection that spreads every input bit
+     * over the whole output
+     * @param value long
+     * @return long
+     */
+    static long mix(long value){
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,170 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * A {@link StateStore} on the Java heap using open addressing. Keys, parents,
+ * moves and the hash slots are primitive arrays, which takes a few words per state
+ * instead of a configuration object and a map entry.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class StateTable implements StateStore {
+    /** number of words per key */
+    private final int width;
+    /** the keys in index order, width words each */
+    private long[] keys;
+    private int[] parents;
+    private int[] moves;
+    /** hash slots holding index + 1, 0 when empty */
+    private int[] slots;
+    private int size;
+
+    /**
+     * StateTable constructor
+     * @param width number of words per key
+     * @param expectedStates number of states the table holds before it grows
+     */
+    public StateTable(int width, int expectedStates){
+        int capacity = Math.max(16, expectedStates);
+        this.width = width;
+        this.keys = new long[capacity * width];
+        this.parents = new int[capacity];
+        this.moves = new int[capacity];
+        this.slots = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    /**
+     * adds a state if it is not in the table yet
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @param parent index of the parent, or NO_PARENT
+     * @param move the move from the parent to this state, or NO_MOVE
+     * @return the index of the new state, or -1 if it was already there
+     */
+    @Override
+    public int add(long[] key, int offset, int parent, int move){
+        int mask = this.slots.length - 1;
+        int slot = (int) StateStore.hash(key, offset, this.width) & mask;
+        for (int entry = this.slots[slot]; entry != 0; entry = this.slots[slot]) {
+            if (matches(entry - 1, key, offset)) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (this.size == this.parents.length) {
+            this.parents = Arrays.copyOf(this.parents, this.size * 2);
+            this.moves = Arrays.copyOf(this.moves, this.size * 2);
+            this.keys = Arrays.copyOf(this.keys, this.size * 2 * this.width);
+        }
+        int index = this.size++;
+        System.arraycopy(key, offset, this.keys, index * this.width, this.width);
+        this.parents[index] = parent;
+        this.moves[index] = move;
+        this.slots[slot] = index + 1;
+        if (this.size * 2 > this.slots.length) {
+            rehash();
+        }
+        return index;
+    }
+
+    /**
+     * finds a state
+     * @param key the words of the state
+     * @param offset index of the state's first word
+     * @return the index of the state, or -1 if it is not in the table
+     */
+    @Override
+    public int indexOf(long[] key, int offset){
+        int mask = this.slots.length - 1;
+        int slot = (int) StateStore.hash(key, offset, this.width) & mask;
+        for (int entry = this.slots[slot]; entry != 0; entry = this.slots[slot]) {
+            if (matches(entry - 1, key, offset)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * copies the key of a state
+     * @param index the index of the state
+     * @param dest where the words are written
+     * @param offset index of the first word to write
+     */
+    @Override
+    public void get(int index, long[] dest, int offset){
+        System.arraycopy(this.keys, index * this.width, dest, offset, this.width);
+    }
+
+    /**
+     * getter for the parent of a state
+     * @param index the index of the state
+     * @return int, NO_PARENT for a state without a parent
+     */
+    @Override
+    public int parent(int index){
+        return this.parents[index];
+    }
+
+    /**
+     * getter for the move that led to a state from its parent
+     * @param index the index of the state
+     * @return int, NO_MOVE for a state added without one
+     */
+    @Override
+    public int move(int index){
+        return this.moves[index];
+    }
+
+    /**
+     * getter for size
+     * @return int
+     */
+    @Override
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * getter for width
+     * @return int
+     */
+    @Override
+    public int width(){
+        return this.width;
+    }
+
+    /**
+     * compares a stored key with the given words
+     * @param index the stored state
+     * @param key the words to compare with
+     * @param offset index of the first word to compare
+     * @return boolean
+     */
+    private boolean matches(int index, long[] key, int offset){
+        int start = index * this.width;
+        for (int i = 0; i < this.width; i++) {
+            if (this.keys[start + i] != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * doubles the hash slots and puts every state back
+     */
+    private void rehash(){
+        this.slots = new int[this.slots.length * 2];
+        int mask = this.slots.length - 1;
+        for (int index = 0; index < this.size; index++) {
+            int slot = (int) StateStore.hash(this.keys, index * this.width, this.width) & mask;
+            while (this.slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.slots[slot] = index + 1;
+        }
+    }
+}
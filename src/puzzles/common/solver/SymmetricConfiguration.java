@@ -0,0 +1,22 @@
+package puzzles.common.solver;
+
+/**
+ * An encodable configuration whose puzzle looks the same after some
+ * rotations or reflections of the board. Configurations that are images of
+ * each other under one of those symmetries have the same solution length,
+ * so a search only has to visit one of them.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public interface SymmetricConfiguration extends EncodableConfiguration {
+
+    /**
+     * packs the configuration like encode, but as the smallest encoding over
+     * every symmetry of the board, so symmetric configurations give equal
+     * words. Decoding the result gives a legal configuration of the same
+     * puzzle, though possibly a rotated or reflected one.
+     * @param words where the encoding is written
+     * @param offset index of the first word to write
+     */
+    void encodeCanonical(long[] words, int offset);
+}
@@ -0,0 +1,58 @@
+package puzzles.common.solver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded table from configurations to the smallest number of moves with
+ * which they have been searched. When it is full the least recently used
+ * entry is dropped, so the memory it takes never grows past its capacity.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class TranspositionTable {
+    /** most entries kept, 0 disables the table */
+    private final int capacity;
+    private final LinkedHashMap<Configuration, Integer> depths;
+
+    /**
+     * TranspositionTable constructor
+     * @param capacity most entries kept, 0 disables the table
+     */
+    public TranspositionTable(int capacity){
+        this.capacity = Math.max(0, capacity);
+        this.depths = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Configuration, Integer> eldest) {
+                return size() > TranspositionTable.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * records that a configuration is being searched with the given number
+     * of moves already made
+     * @param configuration Configuration
+     * @param depth int
+     * @return true if the configuration was already searched with at most
+     *         that many moves, so searching it again can be skipped
+     */
+    public boolean visit(Configuration configuration, int depth){
+        if (this.capacity == 0) {
+            return false;
+        }
+        Integer known = this.depths.get(configuration);
+        if (known != null && known <= depth) {
+            return true;
+        }
+        this.depths.put(configuration, depth);
+        return false;
+    }
+
+    /**
+     * removes every entry
+     */
+    public void clear(){
+        this.depths.clear();
+    }
+}
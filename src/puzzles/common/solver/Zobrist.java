@@ -0,0 +1,41 @@
+package puzzles.common.solver;
+
+/**
+ * Zobrist hashing for board puzzles. Every (cell, piece) pair has a fixed
+ * pseudo random 64 bit key and a board hashes to the XOR of the keys of its
+ * occupied cells, so a move only has to XOR out the old contents of the cells
+ * it changes and XOR in the new ones. The keys are derived from the cell and
+ * piece numbers, so they are the same for every board size and every run.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public final class Zobrist {
+
+    /**
+     * no instances, only static helpers
+     */
+    private Zobrist(){
+    }
+
+    /**
+     * the key for a piece on a cell
+     * @param cell the row-major index of the cell
+     * @param piece the piece code, 0 for an empty cell which has no key
+     * @return long
+     */
+    public static long key(int cell, int piece){
+        if (piece == 0) {
+            return 0;
+        }
+        return StateStore.mix(((long) cell << 8 | piece) + 0x9e3779b97f4a7c15L);
+    }
+
+    /**
+     * folds a 64 bit hash into an int for hashCode
+     * @param hash long
+     * @return int
+     */
+    public static int fold(long hash){
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -1,9 +1,11 @@
 package puzzles.hoppers.gui;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Border;
@@ -15,6 +17,7 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.FileChooser;
 import puzzles.common.Coordinates;
 import puzzles.common.Observer;
+import puzzles.common.solver.SolveResult;
 import puzzles.hoppers.model.HoppersModel;
 import puzzles.hoppers.model.HoppersConfig;
 import javafx.application.Application;
@@ -24,6 +27,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import static javafx.geometry.Pos.CENTER;
 
 /**
@@ -52,6 +56,16 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
     private BorderPane borderPane;
     private HBox hBox;
     private Label topBox;
+    /** spins while a hint is being searched for */
+    private ProgressIndicator hintProgress;
+    /** how far the hint search has got */
+    private Label hintStatus;
+    /** the hint the GUI is waiting for, or null */
+    private CompletableFuture<HoppersModel.Hint> pendingHint;
+    /** whether the puzzle can still be solved from the board */
+    private Label solvableStatus;
+    /** the solvability check the GUI is waiting for, or null */
+    private CompletableFuture<SolveResult> pendingCheck;
 
 
 
@@ -113,6 +127,7 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         stage.setScene(scene);
         stage.setResizable(true);
         stage.show();
+        checkSolvable();
 
     }
 
@@ -175,20 +190,20 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
                 int finalC = c;
 
 
-                if(model.currConfig().getGrid()[r][c].equals("G")){
-                    b = makeFrogButton(r, c, model.currConfig().getGrid()[r][c]);
+                if(model.currConfig().getCell(r, c).equals("G")){
+                    b = makeFrogButton(r, c, model.currConfig().getCell(r, c));
                     grid.add(b, c, r);
                 }
-                if(model.currConfig().getGrid()[r][c].equals("R")){
-                    b = makeFrogButton(r, c, model.currConfig().getGrid()[r][c]);
+                if(model.currConfig().getCell(r, c).equals("R")){
+                    b = makeFrogButton(r, c, model.currConfig().getCell(r, c));
                     grid.add(b, c, r);
                 }
-                if(model.currConfig().getGrid()[r][c].equals("*")){
-                    b = makeFrogButton(r, c, model.currConfig().getGrid()[r][c]);
+                if(model.currConfig().getCell(r, c).equals("*")){
+                    b = makeFrogButton(r, c, model.currConfig().getCell(r, c));
                     grid.add(b, c, r);
                 }
-                if(model.currConfig().getGrid()[r][c].equals(".")){
-                    b = makeFrogButton(r, c, model.currConfig().getGrid()[r][c]);
+                if(model.currConfig().getCell(r, c).equals(".")){
+                    b = makeFrogButton(r, c, model.currConfig().getCell(r, c));
                     grid.add(b, c, r);
                 }
                 b.setOnAction(event -> model.selectCell(finalR, finalC));
@@ -217,12 +232,69 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
 
         Button HINT = new Button("Hint");
         HINT.setFont(Font.font("SansSerif", FontWeight.BOLD, FONT_SIZE));
-        HINT.setOnAction(event -> model.hint());
+        HINT.setOnAction(event -> hint());
 
-        bottomBox.getChildren().addAll(LOAD, RESET,HINT);
+        hintProgress = new ProgressIndicator();
+        hintProgress.setPrefSize(FONT_SIZE * 2, FONT_SIZE * 2);
+        hintProgress.setVisible(false);
+        hintStatus = new Label();
+        hintStatus.setFont(Font.font("SansSerif", FONT_SIZE));
+
+        solvableStatus = new Label();
+        solvableStatus.setFont(Font.font("SansSerif", FONT_SIZE));
+
+        bottomBox.getChildren().addAll(LOAD, RESET,HINT, hintProgress, hintStatus, solvableStatus);
         return bottomBox;
     }
 
+    /**
+     Asks the model for a hint without blocking the JavaFX thread. The search runs on the model's hint thread while the
+     progress indicator spins and the status label counts the configurations searched; the hint is applied back on
+     the JavaFX thread once it is found. A move, reset or load before then cancels the search and the hint is dropped.
+     */
+    private void hint(){
+        CompletableFuture<HoppersModel.Hint> search = model.findHint((request, stats) -> Platform.runLater(() -> {
+            if (!request.isCancelled()) {
+                hintStatus.setText("Searched " + stats.getExpanded() + " configurations");
+            }
+        }));
+        pendingHint = search;
+        hintProgress.setVisible(true);
+        search.whenCompleteAsync((hint, error) -> {
+            if (pendingHint != search) {
+                // a newer hint was asked for, it hides the indicator when it is done
+                return;
+            }
+            pendingHint = null;
+            hintProgress.setVisible(false);
+            hintStatus.setText("");
+            if (error != null) {
+                topBox.setText("Hint failed: " + error.getMessage());
+            } else {
+                model.applyHint(hint);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     Asks the model whether the puzzle can still be solved from the board without blocking the JavaFX thread, and
+     shows the answer once it comes. A check for an earlier board is dropped.
+     */
+    private void checkSolvable(){
+        CompletableFuture<SolveResult> check = model.checkSolvable();
+        pendingCheck = check;
+        if (!check.isDone()) {
+            solvableStatus.setText("Checking if solvable");
+        }
+        check.whenCompleteAsync((result, error) -> {
+            if (pendingCheck != check) {
+                return;
+            }
+            pendingCheck = null;
+            solvableStatus.setText(error != null ? "" : HoppersModel.solvability(result));
+        }, Platform::runLater);
+    }
+
     /**
      Updates the GUI with the latest state of the HoppersModel. This method is called by the HoppersModel whenever
      there is a change in the model's state.
@@ -231,6 +303,10 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
      */
     @Override
     public void update(HoppersModel model, String message) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> update(model, message));
+            return;
+        }
         GridPane newGrid;
         topBox.setText(message);
         topBox.setFont(Font.font("SansSerif", FontWeight.BOLD, FONT_SIZE));
@@ -238,9 +314,18 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, St
         newGrid = makeGrid();
         borderPane.setCenter(newGrid);
         stage.sizeToScene();
+        checkSolvable();
     }
 
 
+    /**
+     Stops a hint search or solvability check still running when the window is closed.
+     */
+    @Override
+    public void stop() {
+        model.cancelHint();
+    }
+
     /**
      * Main method of the Hoppers GUI application. It launches the JavaFX Application
      * if one argument is provided, which is the filename of the Hoppers puzzle to be loaded.
@@ -1,6 +1,11 @@
 package puzzles.hoppers.model;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.GridSymmetry;
+import puzzles.common.solver.MonotoneConfiguration;
+import puzzles.common.solver.MoveConfiguration;
+import puzzles.common.solver.SymmetricConfiguration;
+import puzzles.common.solver.Zobrist;
 
 
 import puzzles.common.Coordinates;
@@ -8,6 +13,7 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Aniruddha Roy
@@ -16,21 +22,26 @@ import java.util.*;
 
 
 
-public class HoppersConfig implements Configuration {
+public class HoppersConfig implements SymmetricConfiguration, MoveConfiguration, MonotoneConfiguration {
     /**
-     * The rectangular grid of the Hoppers puzzle game.
+     * The size, water, jumps and symmetries of the board, shared by every configuration of the same puzzle.
      */
-    private final String[][] grid;
+    private final HoppersShape shape;
 
     /**
-     * The number of rows of the grid.
+     * The cells holding a green frog.
      */
-    private final int numRows;
+    private final long[] green;
 
     /**
-     * The number of columns of the grid.
+     * The cells holding a red frog.
      */
-    private final int numCols;
+    private final long[] red;
+
+    /**
+     * The Zobrist hash of the grid, kept up to date by every change to a cell.
+     */
+    private long hash;
 
     /**
      * A constant string that represents a green frog.
@@ -52,6 +63,26 @@ public class HoppersConfig implements Configuration {
      */
     public static String WATER = "*";
 
+    /**
+     * Number of cells packed into one word of the encoding, two bits each.
+     */
+    private static final int CELLS_PER_WORD = 32;
+
+    /**
+     * The contents of a cell by its code.
+     */
+    private static final String[] CELLS = {LILLY_PAD, GREEN_FROG, RED_FROG, WATER};
+
+    /**
+     * Bits per cell index in a packed move, boards can have up to 1024 cells.
+     */
+    private static final int CELL_BITS = 10;
+
+    /**
+     * Mask for one cell index of a packed move.
+     */
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
 
 
     /**
@@ -67,33 +98,51 @@ public class HoppersConfig implements Configuration {
      *
      * @param filename The name of the file to read from.
      * @throws IOException If an error occurs while reading from the file.
+     * @throws IllegalArgumentException If the board has more cells than a packed move can hold.
      */
     public HoppersConfig(String filename) throws IOException {
+        String[][] grid;
         try (BufferedReader bufferedReader = new BufferedReader(new FileReader(filename))) {
 
 
             String[] dims = bufferedReader.readLine().split("\\s+");
-            this.numRows = Integer.parseInt(dims[0]);
-            this.numCols = Integer.parseInt(dims[1]);
-            this.grid = new String[this.numRows][this.numCols];
+            int numRows = Integer.parseInt(dims[0]);
+            int numCols = Integer.parseInt(dims[1]);
+            if ((long) numRows * numCols > 1 << CELL_BITS) {
+                throw new IllegalArgumentException(filename + ": boards can have up to " + (1 << CELL_BITS)
+                        + " cells, this one has " + (long) numRows * numCols);
+            }
+            grid = new String[numRows][numCols];
 
 
-            for (int r = 0; r < this.numRows; r++) {
+            for (int r = 0; r < numRows; r++) {
                 String[] nextLine = bufferedReader.readLine().split("\\s+");
-                for (int c = 0; c < this.numCols; c++) {
-                    this.grid[r][c] = String.valueOf((nextLine[c].charAt(0)));
+                for (int c = 0; c < numCols; c++) {
+                    grid[r][c] = String.valueOf((nextLine[c].charAt(0)));
 
                 }
             }
         }
+        this.shape = new HoppersShape(grid);
+        this.green = new long[this.shape.words];
+        this.red = new long[this.shape.words];
+        for (int r = 0; r < this.shape.numRows; r++) {
+            for (int c = 0; c < this.shape.numCols; c++) {
+                if (grid[r][c].equals(GREEN_FROG)) {
+                    HoppersShape.set(this.green, r * this.shape.numCols + c);
+                } else if (grid[r][c].equals(RED_FROG)) {
+                    HoppersShape.set(this.red, r * this.shape.numCols + c);
+                }
+            }
+        }
+        this.hash = computeHash();
     }
 
     /**
 
      Represents the configuration of a game of Hoppers.
      The configuration includes the number of rows and columns in the game board,
-     as well as the contents of each square on the board. The contents are represented
-     as a 2D array of strings, where each string represents the piece on the corresponding square.
+     as well as the contents of each square on the board.
      This constructor creates a new HoppersConfig object based on the current configuration,
      but with a few changes:
      The square at the "remove" coordinates is replaced with a lilly pad.
@@ -105,16 +154,101 @@ public class HoppersConfig implements Configuration {
      @param jumpEnd The coordinates of the square where the piece should be moved.
      */
     public HoppersConfig(HoppersConfig current, Coordinates remove, Coordinates jumpStart, Coordinates jumpEnd) {
-        this.numRows = current.numRows;
-        this.numCols = current.numCols;
-        this.grid = new String[this.numRows][this.numCols];
-        for (int r = 0; r < numRows; r++) {
-            System.arraycopy(current.grid[r], 0, this.grid[r], 0, this.numCols);
+        this(current);
+        String frog = getCell(jumpStart.row(), jumpStart.col());
+        setCell(remove.row(), remove.col(), LILLY_PAD);
+        setCell(jumpStart.row(), jumpStart.col(), LILLY_PAD);
+        setCell(jumpEnd.row(), jumpEnd.col(), frog);
+    }
+
+    /**
+     Constructs a copy of another configuration.
+     @param other the configuration to copy
+     */
+    private HoppersConfig(HoppersConfig other) {
+        this.shape = other.shape;
+        this.green = other.green.clone();
+        this.red = other.red.clone();
+        this.hash = other.hash;
+    }
+
+    /**
+     Returns the code of a cell for hashing and encoding: lilly pad 0, green frog 1, red frog 2, water 3.
+     @param cell the contents of a cell
+     @return the code of the cell
+     */
+    private static int code(String cell) {
+        if (cell.equals(GREEN_FROG)) {
+            return 1;
+        } else if (cell.equals(RED_FROG)) {
+            return 2;
+        } else if (cell.equals(WATER)) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     Returns the code of the contents of a cell of this board, the same as {@link #code(String)}.
+     @param cell the row-major index of the cell
+     @return the code of the cell
+     */
+    private int code(int cell) {
+        if (HoppersShape.get(this.green, cell)) {
+            return 1;
+        } else if (HoppersShape.get(this.red, cell)) {
+            return 2;
+        } else if (HoppersShape.get(this.shape.water, cell)) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     Hashes the whole grid as the XOR of the Zobrist keys of every cell.
+     @return the Zobrist hash of the grid
+     */
+    private long computeHash() {
+        long result = 0;
+        for (int cell = 0; cell < this.shape.numRows * this.shape.numCols; cell++) {
+            result ^= Zobrist.key(cell, code(cell));
+        }
+        return result;
+    }
+
+    /**
+     Returns the contents of a cell.
+     @param row the row of the cell
+     @param col the column of the cell
+     @return one of GREEN_FROG, RED_FROG, LILLY_PAD or WATER
+     */
+    public String getCell(int row, int col) {
+        return CELLS[code(row * this.shape.numCols + col)];
+    }
+
+    /**
+     Changes the contents of a cell and updates the hash by XORing out the old contents and XORing in the new.
+     Every change to the board has to go through this method. The water of a board never changes.
+     @param row the row of the cell
+     @param col the column of the cell
+     @param value the new contents of the cell
+     @throws IllegalArgumentException if the cell would turn into or out of water
+     */
+    public void setCell(int row, int col, String value) {
+        int cell = row * this.shape.numCols + col;
+        int code = code(value);
+        int old = code(cell);
+        if ((code == 3) != (old == 3)) {
+            throw new IllegalArgumentException("The water of a Hoppers board cannot change");
+        }
+        this.hash ^= Zobrist.key(cell, old) ^ Zobrist.key(cell, code);
+        HoppersShape.clear(this.green, cell);
+        HoppersShape.clear(this.red, cell);
+        if (code == 1) {
+            HoppersShape.set(this.green, cell);
+        } else if (code == 2) {
+            HoppersShape.set(this.red, cell);
         }
-        this.grid[remove.row()][remove.col()] = LILLY_PAD;
-        String frog = this.grid[jumpStart.row()][jumpStart.col()];
-        this.grid[jumpStart.row()][jumpStart.col()] = LILLY_PAD;
-        this.grid[jumpEnd.row()][jumpEnd.col()] = String.valueOf(frog);
     }
 
     /**
@@ -125,18 +259,38 @@ public class HoppersConfig implements Configuration {
      */
     @Override
     public boolean isSolution() {
-        for (int i = 0; i < this.numRows; ++i) {
-
-            for (int j = 0; j < this.numCols; ++j) {
-
-                if (this.grid[i][j].equals(GREEN_FROG)) {
-                    return false;
-                }
+        for (long word : this.green) {
+            if (word != 0) {
+                return false;
             }
         }
         return true;
     }
 
+    /**
+     Estimates the number of jumps left. Every jump removes exactly one green frog,
+     so the number of green frogs still on the board is never more than the real number.
+     @return the number of green frogs on the board
+     */
+    @Override
+    public int heuristic() {
+        int greenFrogs = 0;
+        for (long word : this.green) {
+            greenFrogs += Long.bitCount(word);
+        }
+        return greenFrogs;
+    }
+
+    /**
+     Returns the number of jumps left. Every jump removes exactly one green frog and the puzzle is solved once they are
+     all gone, so every solution is exactly this many jumps away.
+     @return the number of green frogs on the board
+     */
+    @Override
+    public int movesLeft() {
+        return heuristic();
+    }
+
     /**
      Returns a collection of all the neighboring configurations.
      @return a collection of neighboring configurations
@@ -144,41 +298,103 @@ public class HoppersConfig implements Configuration {
     @Override
     public Collection<Configuration> getNeighbors() {
         LinkedList<Configuration> neighbors = new LinkedList<>();
-        int[][] diagJumps = new int[][]{{-1, 1}, {1, -1}, {-1, -1}, {1, 1}};
-        int[][] vertHorsJumps = new int[][]{{2, 0}, {0, 2}, {-2, 0}, {0, -2}};
-        for (int r = 0; r < this.numRows; r++) {
-            for (int c = 0; c < this.numCols; c++) {
-
-                for (int[] jump : diagJumps) {
-                    int frogRow = r + jump[0];
-                    int frogCol = c + jump[1];
-                    int destRow = r + 2 * jump[0];
-                    int destCol = c + 2 * jump[1];
-                    if (Objects.equals(this.grid[r][c], LILLY_PAD) || Objects.equals(this.grid[r][c], WATER)) continue;
-                    if (isInBoundCell(frogRow, frogCol) && isInBoundCell(destRow, destCol) && isValid(destRow, destCol,
-                            frogRow, frogCol)) {
-                        neighbors.add(new HoppersConfig(this, new Coordinates(frogRow, frogCol),
-                                new Coordinates(r, c), new Coordinates(destRow, destCol)));
-                    }
-                }
-                if (r % 2 == 0 && c % 2 == 0) {
-                    for (int[] jump : vertHorsJumps) {
-                        int frogRow = r + jump[0];
-                        int frogCol = c + jump[1];
-                        int destRow = r + jump[0] * 2;
-                        int destCol = c + jump[1] * 2;
-                        if (Objects.equals(this.grid[r][c], LILLY_PAD) || Objects.equals(this.grid[r][c], WATER))
-                            continue;
-                        if (isInBoundCell(frogRow, frogCol) && isInBoundCell(destRow, destCol) && isValid(destRow,
-                                destCol, frogRow, frogCol)) {
-                            neighbors.add(new HoppersConfig(this, new Coordinates(frogRow, frogCol),
-                                    new Coordinates(r, c), new Coordinates(destRow, destCol)));
-                        }
+        forEachNeighbor(neighbors::add);
+        return neighbors;
+    }
+
+    /**
+     Builds the neighboring configurations one at a time from the moves of this configuration, without the
+     intermediate collection.
+     @param action called once per neighboring configuration
+     */
+    @Override
+    public void forEachNeighbor(Consumer<Configuration> action) {
+        int[] moves = new int[maxMoves()];
+        int count = generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            HoppersConfig neighbor = copy();
+            neighbor.makeMove(moves[i]);
+            action.accept(neighbor);
+        }
+    }
+
+    /**
+     Returns the most moves a board of this size can have, eight jumps per cell.
+     @return the most moves of any configuration
+     */
+    @Override
+    public int maxMoves() {
+        return 8 * this.shape.numRows * this.shape.numCols;
+    }
+
+    /**
+     Writes every jump of this configuration into the buffer. A frog on any cell can jump diagonally over a green
+     frog onto a lilly pad, and a frog on a cell with an even row and column can also jump straight over one. The
+     jumps of each cell come from the table of the board's shape, so only the masks are tested here.
+     @param moves the buffer, at least {@link #maxMoves()} long
+     @return the number of moves written
+     */
+    @Override
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int word = 0; word < this.shape.words; word++) {
+            for (long frogs = this.green[word] | this.red[word]; frogs != 0; frogs &= frogs - 1) {
+                int from = word << 6 | Long.numberOfTrailingZeros(frogs);
+                for (int j = this.shape.jumpStart[from]; j < this.shape.jumpStart[from + 1]; j++) {
+                    int over = this.shape.over[j];
+                    int to = this.shape.to[j];
+                    if (HoppersShape.get(this.green, over) && !HoppersShape.get(this.green, to)
+                            && !HoppersShape.get(this.red, to)) {
+                        moves[count++] = from | over << CELL_BITS | to << 2 * CELL_BITS;
                     }
                 }
             }
         }
-        return neighbors;
+        return count;
+    }
+
+    /**
+     Applies a jump made by {@link #generateMoves(int[])}: the jumping frog lands on the destination and the green
+     frog it jumped over is removed.
+     @param move the packed move, start cell, jumped cell and destination cell
+     */
+    @Override
+    public void makeMove(int move) {
+        int from = move & CELL_MASK;
+        int over = (move >>> CELL_BITS) & CELL_MASK;
+        int to = move >>> 2 * CELL_BITS;
+        long[] frogs = HoppersShape.get(this.green, from) ? this.green : this.red;
+        int frog = frogs == this.green ? 1 : 2;
+        HoppersShape.clear(this.green, over);
+        HoppersShape.clear(frogs, from);
+        HoppersShape.set(frogs, to);
+        this.hash ^= Zobrist.key(over, 1) ^ Zobrist.key(from, frog) ^ Zobrist.key(to, frog);
+    }
+
+    /**
+     Takes back a jump applied with {@link #makeMove(int)}, putting the jumped green frog back.
+     @param move the packed move, start cell, jumped cell and destination cell
+     */
+    @Override
+    public void unmakeMove(int move) {
+        int from = move & CELL_MASK;
+        int over = (move >>> CELL_BITS) & CELL_MASK;
+        int to = move >>> 2 * CELL_BITS;
+        long[] frogs = HoppersShape.get(this.green, to) ? this.green : this.red;
+        int frog = frogs == this.green ? 1 : 2;
+        HoppersShape.clear(frogs, to);
+        HoppersShape.set(frogs, from);
+        HoppersShape.set(this.green, over);
+        this.hash ^= Zobrist.key(over, 1) ^ Zobrist.key(from, frog) ^ Zobrist.key(to, frog);
+    }
+
+    /**
+     Returns an independent copy of this configuration.
+     @return the copy
+     */
+    @Override
+    public HoppersConfig copy() {
+        return new HoppersConfig(this);
     }
 
 
@@ -191,7 +407,7 @@ public class HoppersConfig implements Configuration {
      @return true if the move is valid, false otherwise
      */
     public boolean isValid(int destRow, int destCol, int frogRow, int frogCol) {
-        return this.grid[destRow][destCol].equals(LILLY_PAD) && this.grid[frogRow][frogCol].equals(GREEN_FROG);
+        return getCell(destRow, destCol).equals(LILLY_PAD) && getCell(frogRow, frogCol).equals(GREEN_FROG);
     }
 
 
@@ -202,7 +418,7 @@ public class HoppersConfig implements Configuration {
      @return true if the cell is within the bounds of the game board, false otherwise
      */
     public boolean isInBoundCell(int row, int col) {
-        return (row >= 0 && col >= 0 && row < numRows && col < numCols);
+        return this.shape.inBounds(row, col);
     }
 
 
@@ -218,30 +434,26 @@ public class HoppersConfig implements Configuration {
             return true; // Same object reference, hence equal
         }
         if (other instanceof HoppersConfig o) {
-            if (this.numRows != o.numRows || this.numCols != o.numCols) {
-                return false; // Different dimensions, hence not equal
+            if (this.hash != o.hash) {
+                return false; // Different hashes, hence not equal
             }
-            for (int r = 0; r < this.numRows; r++) {
-                for (int c = 0; c < this.numCols; c++) {
-                    if (!this.grid[r][c].equals(o.grid[r][c])) {
-                        return false; // Elements at the same position are not equal, hence not equal
-                    }
-                }
+            if (!this.shape.sameAs(o.shape)) {
+                return false; // Different dimensions or water, hence not equal
             }
-            return true; // Everything matched, hence equal
+            return Arrays.equals(this.green, o.green) && Arrays.equals(this.red, o.red);
         }
         return false; // Not an instance of HoppersConfig, hence not equal
     }
 
 
     /**
-     Returns the hash code value for this object, which is computed as the hash code of the string representation
-     of this object.
+     Returns the hash code value for this object, the Zobrist hash of the grid which is kept up to date by every
+     change to a cell instead of being recomputed.
      @return the hash code value for this object
      */
     @Override
     public int hashCode() {
-        return this.toString().hashCode();
+        return Zobrist.fold(this.hash);
     }
 
     /**
@@ -252,27 +464,102 @@ public class HoppersConfig implements Configuration {
     @Override
     public String toString() {
         StringBuilder layout = new StringBuilder();
-        for (int r = 0; r < this.numRows; r++) {
-            for (int c = 0; c < this.numCols; c++) {
+        for (int r = 0; r < this.shape.numRows; r++) {
+            for (int c = 0; c < this.shape.numCols; c++) {
                 if (c != 0) {
                     layout.append(" ");
                 }
-                layout.append(this.grid[r][c]);
+                layout.append(getCell(r, c));
             }
-            if (r != this.numRows - 1) {
+            if (r != this.shape.numRows - 1) {
                 layout.append("\n");
             }
         }
         return layout.toString();
     }
 
+    /**
+     Returns the number of words needed to encode a board of this size, two bits per cell.
+     @return the number of words in the encoding
+     */
+    @Override
+    public int encodedWords() {
+        return (this.shape.numRows * this.shape.numCols + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+    }
+
+    /**
+     Packs the board two bits per cell in row-major order: lilly pad 0, green frog 1, red frog 2, water 3.
+     @param words where the encoding is written
+     @param offset index of the first word to write
+     */
+    @Override
+    public void encode(long[] words, int offset) {
+        Arrays.fill(words, offset, offset + encodedWords(), 0L);
+        for (int cell = 0; cell < this.shape.numRows * this.shape.numCols; cell++) {
+            long code = code(cell);
+            words[offset + cell / CELLS_PER_WORD] |= code << (cell % CELLS_PER_WORD * 2);
+        }
+    }
+
+    /**
+     Rebuilds a board of the same size from an encoding made by {@link #encode(long[], int)}.
+     @param words where the encoding is read from
+     @param offset index of the first word to read
+     @return the decoded configuration
+     */
+    @Override
+    public Configuration decode(long[] words, int offset) {
+        HoppersConfig decoded = copy();
+        decoded.load(words, offset);
+        return decoded;
+    }
+
+    /**
+     Overwrites this board with an encoding made by {@link #encode(long[], int)}. The water comes from the shape.
+     @param words where the encoding is read from
+     @param offset index of the first word to read
+     */
+    @Override
+    public void load(long[] words, int offset) {
+        Arrays.fill(this.green, 0L);
+        Arrays.fill(this.red, 0L);
+        for (int cell = 0; cell < this.shape.numRows * this.shape.numCols; cell++) {
+            int code = (int) (words[offset + cell / CELLS_PER_WORD] >>> (cell % CELLS_PER_WORD * 2)) & 3;
+            if (code == 1) {
+                HoppersShape.set(this.green, cell);
+            } else if (code == 2) {
+                HoppersShape.set(this.red, cell);
+            }
+        }
+        this.hash = computeHash();
+    }
+
+    /**
+     Packs the board like {@link #encode(long[], int)}, but as the smallest encoding over the symmetries of the board.
+     @param words where the encoding is written
+     @param offset index of the first word to write
+     */
+    @Override
+    public void encodeCanonical(long[] words, int offset) {
+        if (this.shape.symmetries.length == 1) {
+            encode(words, offset);
+            return;
+        }
+        GridSymmetry.Scratch scratch = this.shape.scratch.get();
+        int[] codes = scratch.codes;
+        for (int cell = 0; cell < codes.length; cell++) {
+            codes[cell] = code(cell);
+        }
+        GridSymmetry.encodeMin(scratch, this.shape.symmetries, words, offset);
+    }
+
     /**
      * Returns the number of columns in the grid of this Hoppers configuration.
      *
      * @return the number of columns in the grid
      */
     public int getNumCols() {
-        return numCols;
+        return this.shape.numCols;
     }
 
     /**
@@ -281,16 +568,24 @@ public class HoppersConfig implements Configuration {
      * @return the number of rows
      */
     public int getNumRows() {
-        return numRows;
+        return this.shape.numRows;
     }
 
     /**
-     * Returns the grid of the Hoppers configuration.
+     * Returns a snapshot of the grid of the Hoppers configuration. Changing the snapshot does not change the
+     * configuration; use {@link #setCell(int, int, String)} for that, and {@link #getCell(int, int)} to read a
+     * single cell without building the whole grid.
      *
      * @return the grid of the Hoppers configuration as a two-dimensional array of strings,
      *         where each string represents the content of the corresponding cell
      */
     public String[][] getGrid(){
-        return this.grid;
+        String[][] grid = new String[this.shape.numRows][this.shape.numCols];
+        for (int r = 0; r < this.shape.numRows; r++) {
+            for (int c = 0; c < this.shape.numCols; c++) {
+                grid[r][c] = getCell(r, c);
+            }
+        }
+        return grid;
     }
 }
\ No newline at end of file
@@ -2,12 +2,22 @@ package puzzles.hoppers.model;
 
 import puzzles.common.Observer;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.DistanceTable;
+import puzzles.common.solver.HintCache;
+import puzzles.common.solver.SearchStats;
+import puzzles.common.solver.SolutionCache;
+import puzzles.common.solver.SolveRequest;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.solver.Solver;
 
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Aniruddha Roy
@@ -21,10 +31,44 @@ public class HoppersModel {
     /** the current configuration */
     private HoppersConfig currentConfig;
     private String fname;
-    public LinkedList<Configuration> path;
+    /** what earlier hints found out about the puzzle */
+    private final HintCache hints = new HintCache();
+    /** the distance to a solution of every board of the puzzle, filled in the background */
+    private DistanceTable distances;
+    /** solutions kept between runs, or null if the cache file cannot be used */
+    private final SolutionCache solutions = openSolutions();
+    /** runs hint searches and solvability checks through the hint cache, looking in the solution cache first */
+    private final Solver hintSolver = new Solver(hints, solutions);
+    /** the hint search running or waiting to run, or null */
+    private final AtomicReference<SolveRequest> pendingHint = new AtomicReference<>();
+    /** the solvability check running or waiting to run, or null */
+    private final AtomicReference<SolveRequest> pendingCheck = new AtomicReference<>();
+    /** the last solvability check, or null */
+    private CompletableFuture<SolveResult> lastCheck;
+    /** the board the last solvability check is for */
+    private HoppersConfig checkedBoard;
+    /** runs the hint searches one at a time, the only thread that uses the hint cache */
+    private final ExecutorService hintThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hoppers-hints");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** changes whenever the board changes or a new hint is asked for, a hint found before is dropped */
+    private int hintVersion;
+    /** milliseconds between progress updates of a hint search */
+    public static final long PROGRESS_INTERVAL = 100;
     private int curR = -1;
     private int curC = -1;
 
+    /**
+     * A hint found for a board.
+     *
+     * @param version the hint version when it was asked for
+     * @param result how the search ended, the path starts at the board it was asked for
+     */
+    public record Hint(int version, SolveResult result) {
+    }
+
     /**
      * The view calls this to add itself as an observer.
      *
@@ -52,6 +96,8 @@ public class HoppersModel {
     public HoppersModel(String filename) throws IOException {
         try{
             currentConfig = new HoppersConfig(filename);
+            startDistances();
+            rememberSolution();
             alertObservers("Loaded: " + filename);
         } catch (Throwable throwable){
             alertObservers("Failed to load: "+ throwable.getMessage());
@@ -70,22 +116,264 @@ public class HoppersModel {
 
 
     /**
-     * Generates a hint for the next move to solve the puzzle.
-     * Uses breadth-first search to find the shortest path to the next move.
+     * Starts filling in the distance table of the loaded puzzle in the background, stopping the one of the puzzle
+     * loaded before.
+     */
+    private void startDistances() {
+        if (distances != null) {
+            distances.cancel();
+        }
+        distances = new DistanceTable();
+        distances.start(currentConfig.copy());
+    }
+
+    /**
+     * Opens the solution cache in its default file.
+     *
+     * @return the cache, or null if the file cannot be read or created
+     */
+    private static SolutionCache openSolutions() {
+        try {
+            return new SolutionCache(SolutionCache.defaultFile(), SolutionCache.DEFAULT_MAX_ENTRIES);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hands a solution of the loaded puzzle kept by an earlier run to the hint cache, on the hint thread, so hints
+     * along it need no search.
+     */
+    private void rememberSolution() {
+        if (solutions == null) {
+            return;
+        }
+        HoppersConfig initial = currentConfig.copy();
+        hintThread.execute(() -> {
+            try {
+                LinkedList<Configuration> path = solutions.get(initial);
+                if (path != null) {
+                    hints.remember(path);
+                }
+            } catch (IOException e) {
+                // the hit was not recorded, the solution is still good
+            }
+        });
+    }
+
+    /**
+     * Asks the hint cache for the path from a board, on the hint thread. A solution the solution cache had is
+     * handed to the hint cache, so hints along it need no search.
+     *
+     * @param request the board and the limits of the search
+     * @param pending where the request waits to be cancelled
+     * @return how the search ended, with the path when it found one
+     */
+    private SolveResult searchHint(SolveRequest request, AtomicReference<SolveRequest> pending) {
+        try {
+            SolveResult result = hintSolver.solve(request);
+            if (result.stats().isCached()) {
+                hints.remember(result.path());
+            }
+            return result;
+        } finally {
+            pending.compareAndSet(request, null);
+        }
+    }
+
+    /**
+     * Stops the hint search and the solvability check that are running or waiting to run, if there are any. Safe to
+     * call from any thread.
+     */
+    public void cancelHint() {
+        cancel(pendingHint);
+        cancel(pendingCheck);
+    }
+
+    /**
+     * Cancels a request waiting to be cancelled.
+     *
+     * @param pending where the request waits, emptied
+     */
+    private static void cancel(AtomicReference<SolveRequest> pending) {
+        SolveRequest request = pending.getAndSet(null);
+        if (request != null) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Stops the hint search and solvability check that are running and drops any hint found for the board as it is
+     * now, before the board changes.
+     */
+    private void dropHint() {
+        cancelHint();
+        hintVersion++;
+    }
+
+    /**
+     * Checks if the puzzle can still be solved from the current board without waiting for the answer.
+     * A lookup once the distance table is filled in, until then a search through the hint cache on the hint thread
+     * that gives up after HintCache.CHECK_TIMEOUT_MILLIS. Asking again before the board changes gives the same check
+     * unless it was cancelled. A check still running for an earlier board is cancelled, and a move or a hint cancels
+     * this one.
+     *
+     * @return SOLVED or UNSOLVABLE when it is known, BUDGET_EXHAUSTED or CANCELLED when it is not
+     */
+    public CompletableFuture<SolveResult> checkSolvable() {
+        if (lastCheck != null && currentConfig.equals(checkedBoard) && !cancelled(lastCheck)) {
+            return lastCheck;
+        }
+        cancel(pendingCheck);
+        HoppersConfig board = currentConfig.copy();
+        checkedBoard = board;
+        SolveResult known = lookUp(board);
+        if (known != null) {
+            lastCheck = CompletableFuture.completedFuture(known);
+        } else {
+            SolveRequest request = new SolveRequest(board).setTimeout(HintCache.CHECK_TIMEOUT_MILLIS);
+            pendingCheck.set(request);
+            lastCheck = CompletableFuture.supplyAsync(() -> searchHint(request, pendingCheck), hintThread);
+        }
+        return lastCheck;
+    }
+
+    /**
+     * Checks if a solvability check ended without an answer because it was cancelled.
+     *
+     * @param check the check
+     * @return true if it was cancelled
+     */
+    private static boolean cancelled(CompletableFuture<SolveResult> check) {
+        return check.isCompletedExceptionally()
+                || check.isDone() && check.join().status() == SolveResult.Status.CANCELLED;
+    }
+
+    /**
+     * A line for the player about a solvability check.
+     *
+     * @param check the result of checkSolvable
+     * @return the line, empty if the check was cancelled
+     */
+    public static String solvability(SolveResult check) {
+        switch (check.status()) {
+            case SOLVED:
+                return "Solvable from here";
+            case UNSOLVABLE:
+                return "Not solvable from here";
+            case BUDGET_EXHAUSTED:
+                return "Not known yet if solvable from here";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Generates a hint for the next move to solve the puzzle, waiting for a search on the calling thread.
+     * Looks the move up in the distance table once it is filled in. Until then, or if the puzzle was too big for
+     * it, asks the hint cache, which answers right away from anywhere on a path an earlier hint or run found and
+     * only searches when the board has left it.
      * If no solution is found, alerts the observers with "No solution" message.
      * If the puzzle is already solved, alerts the observers with "Already solved" message.
      * Updates the current configuration to the next move and alerts the observers with "Next step!" message.
      */
     public void hint(){
-        this.path = new Solver().bfs(currentConfig);
+        hint(null);
+    }
 
-        if (path.isEmpty()){
-            alertObservers("No solution");
-        } else if (path.size()==1) {
-            alertObservers("Already solved");
+    /**
+     * Generates a hint like hint(), telling a progress observer how a search for it is going.
+     *
+     * @param progress gets the stats of the running search, or null
+     */
+    public void hint(Observer<SolveRequest, SearchStats> progress){
+        applyHint(findHint(progress).join());
+    }
+
+    /**
+     * Looks for a hint for the current board without changing anything. Lookups answer right away, searches run on
+     * the hint thread, one at a time, giving up after HintCache.HINT_TIMEOUT_MILLIS. A search still running for an
+     * earlier hint, or a solvability check, is cancelled so the hint does not wait behind it.
+     *
+     * @param progress gets the stats of the running search on the hint thread, or null
+     * @return the hint, to hand to applyHint once it is done
+     */
+    public CompletableFuture<Hint> findHint(Observer<SolveRequest, SearchStats> progress){
+        cancel(pendingHint);
+        cancel(pendingCheck);
+        hintVersion++;
+        int version = hintVersion;
+        HoppersConfig board = currentConfig.copy();
+        SolveResult known = lookUp(board);
+        if (known != null) {
+            return CompletableFuture.completedFuture(new Hint(version, known));
+        }
+        SolveRequest request = new SolveRequest(board)
+                .setTimeout(HintCache.HINT_TIMEOUT_MILLIS).setProgress(progress, PROGRESS_INTERVAL);
+        pendingHint.set(request);
+        return CompletableFuture.supplyAsync(() -> new Hint(version, searchHint(request, pendingHint)), hintThread);
+    }
+
+    /**
+     * The path from a board when it can be answered without a search: the board itself when it is solved, or a
+     * lookup in the distance table.
+     *
+     * @param board a copy of the current board, the caches keep what they are given and moves change the board in
+     *              place
+     * @return the result, or null if a search has to answer
+     */
+    private SolveResult lookUp(HoppersConfig board) {
+        LinkedList<Configuration> path = new LinkedList<>();
+        if (board.isSolution()) {
+            path.add(board);
+            return lookedUp(SolveResult.Status.SOLVED, path);
         }
-        else {
-            currentConfig = (HoppersConfig) path.get(1);
+        int distance = distances.distance(board);
+        if (distance == DistanceTable.UNSOLVABLE) {
+            return lookedUp(SolveResult.Status.UNSOLVABLE, path);
+        }
+        if (distance != DistanceTable.UNKNOWN) {
+            path.add(board);
+            path.add(distances.next(board));
+            return lookedUp(SolveResult.Status.SOLVED, path);
+        }
+        return null;
+    }
+
+    /**
+     * A result answered without a search.
+     *
+     * @param status SOLVED or UNSOLVABLE
+     * @param path the path from the board
+     * @return the result, with no search counted
+     */
+    private static SolveResult lookedUp(SolveResult.Status status, LinkedList<Configuration> path) {
+        return new SolveResult(status, path, new SearchStats(0, 0, 0, 0, 0, 0, 0, false), null);
+    }
+
+    /**
+     * Makes the move a hint found, unless the board changed or another hint was asked for since.
+     * If the search ran out of time or was cancelled, the board stays as it is and the observers are told why.
+     *
+     * @param hint the hint from findHint
+     */
+    public void applyHint(Hint hint){
+        if (hint.version() != hintVersion) {
+            return;
+        }
+        SolveResult result = hint.result();
+        LinkedList<Configuration> path = result.path();
+        if (result.status() == SolveResult.Status.BUDGET_EXHAUSTED) {
+            alertObservers("No hint yet, " + result.reason());
+        } else if (result.status() == SolveResult.Status.CANCELLED) {
+            alertObservers("Hint cancelled");
+        } else if (path.size() == 1) {
+            alertObservers("Already solved");
+        } else if (path.isEmpty()) {
+            alertObservers("No solution");
+        } else {
+            hintVersion++;
+            currentConfig = ((HoppersConfig) path.get(1)).copy();
             alertObservers("Next step!");
         }
     }
@@ -96,9 +384,18 @@ public class HoppersModel {
      * @param filename the name of the file containing the puzzle to be loaded
      */
     public void loadPuzzle(String filename) {
+        dropHint();
         try {
+            boolean newPuzzle = !filename.equals(this.fname) || distances == null;
+            if (newPuzzle) {
+                hintThread.execute(hints::clear);
+            }
             this.fname = filename;
             currentConfig = new HoppersConfig(fname);
+            if (newPuzzle) {
+                startDistances();
+                rememberSolution();
+            }
 
             this.alertObservers("Loaded: " + fname);
             System.out.println(ptuiToString());
@@ -149,7 +446,7 @@ public class HoppersModel {
         for (int r = 0; r < currentConfig.getNumRows(); r++){
             s.append(r).append("|");
             for (int c = 0; c < currentConfig.getNumCols(); c++){
-                s.append(" ").append(currentConfig.getGrid()[r][c]);
+                s.append(" ").append(currentConfig.getCell(r, c));
             }
             s.append("\n");
         }
@@ -168,9 +465,9 @@ public class HoppersModel {
     public void selectHelp(int r, int c) {
         if (curR == -1 && curC == -1) {
             // First select
-            if (Objects.equals(currentConfig.getGrid()[r][c], "*")) {
+            if (Objects.equals(currentConfig.getCell(r, c), "*")) {
                 alertObservers("Invalid selection at (" + r + ", " + c + ")");
-            } else if (Objects.equals(currentConfig.getGrid()[r][c], "G") || Objects.equals(currentConfig.getGrid()[r][c], "R")) {
+            } else if (Objects.equals(currentConfig.getCell(r, c), "G") || Objects.equals(currentConfig.getCell(r, c), "R")) {
                 curR = r;
                 curC = c;
                 alertObservers("Selected (" + r + ", " + c + ")");
@@ -181,11 +478,11 @@ public class HoppersModel {
             }
         } else {
             // Second select
-            if (Objects.equals(currentConfig.getGrid()[r][c], "*")) {
+            if (Objects.equals(currentConfig.getCell(r, c), "*")) {
                 alertObservers("Can't jump from (" + curR + ", " + curC + ") to (" + r + ", " + c + ")");
                 curR = -1;
                 curC = -1;
-            } else if (Objects.equals(currentConfig.getGrid()[r][c], "R") || Objects.equals(currentConfig.getGrid()[r][c], "G")) {
+            } else if (Objects.equals(currentConfig.getCell(r, c), "R") || Objects.equals(currentConfig.getCell(r, c), "G")) {
                 alertObservers("Can't jump from (" + curR + ", " + curC + ") to (" + r + ", " + c + ")");
                 curR = -1;
                 curC = -1;
@@ -195,23 +492,23 @@ public class HoppersModel {
                 int midR = (curR + r) / 2;
                 int midC = (curC + c) / 2;
 
-                if (Objects.equals(currentConfig.getGrid()[midR][midC], "*")) {
+                if (Objects.equals(currentConfig.getCell(midR, midC), "*")) {
                     alertObservers("Can't jump over water to (" + r + ", " + c + ")");
                     curR = -1;
                     curC = -1;
 
                 }
-                else if (Objects.equals(currentConfig.getGrid()[midR][midC], "R")) {
+                else if (Objects.equals(currentConfig.getCell(midR, midC), "R")) {
                     alertObservers("Can't land on (" + r + ", " + c + ")");
                     curR = -1;
                     curC = -1;
 
-                }else if (!Objects.equals(currentConfig.getGrid()[midR][midC], "G")) {
+                }else if (!Objects.equals(currentConfig.getCell(midR, midC), "G")) {
                     alertObservers("No frog to jump over at (" + midR + ", " + midC + ")");
                     curR = -1;
                     curC = -1;
 
-                } else if (!Objects.equals(currentConfig.getGrid()[r][c], ".")) {
+                } else if (!Objects.equals(currentConfig.getCell(r, c), ".")) {
                     alertObservers("Can't land on (" + r + ", " + c + ")");
                     curR = -1;
                     curC = -1;
@@ -236,16 +533,17 @@ public class HoppersModel {
                             return;
                         }
                     }
+                    dropHint();
                     // Jump the frog
-                    if (Objects.equals(currentConfig.getGrid()[curR][curC], "R")) {
-                        currentConfig.getGrid()[r][c] = "R";
+                    if (Objects.equals(currentConfig.getCell(curR, curC), "R")) {
+                        currentConfig.setCell(r, c, "R");
                     } else {
                         // Otherwise, toggle the value of the element between "RED_FROG" and "GREEN_FROG"
-                        currentConfig.getGrid()[r][c] = "G";
+                        currentConfig.setCell(r, c, "G");
                     }
 
-                    currentConfig.getGrid()[curR][curC] = ".";
-                    currentConfig.getGrid()[midR][midC] = ".";
+                    currentConfig.setCell(curR, curC, ".");
+                    currentConfig.setCell(midR, midC, ".");
 
                     alertObservers("Jumped from (" + curR + ", " + curC + ") to (" + r + ", " + c + ")");
                     curR = -1;
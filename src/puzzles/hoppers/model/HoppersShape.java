@@ -0,0 +1,214 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.GridSymmetry;
+
+import java.util.Arrays;
+
+/**
+ * The fixed part of a Hoppers puzzle: the size of the board, where the water is, every jump the board allows and
+ * the symmetries of the board. It is worked out once when a puzzle is read and shared by all of its configurations.
+ * Cells are numbered in row-major order and sets of cells are masks of {@link #words} longs.
+ *
+ * Aniruddha Roy
+ * ar7475
+ */
+final class HoppersShape {
+    /**
+     * The offsets of the frog jumped over for the diagonal jumps every cell has.
+     */
+    private static final int[][] DIAGONAL_JUMPS = {{-1, 1}, {1, -1}, {-1, -1}, {1, 1}};
+
+    /**
+     * The offsets of the frog jumped over for the straight jumps of cells with an even row and column.
+     */
+    private static final int[][] STRAIGHT_JUMPS = {{2, 0}, {0, 2}, {-2, 0}, {0, -2}};
+
+    /**
+     * The number of rows of the board.
+     */
+    final int numRows;
+
+    /**
+     * The number of columns of the board.
+     */
+    final int numCols;
+
+    /**
+     * The number of longs in a mask of cells.
+     */
+    final int words;
+
+    /**
+     * The water cells.
+     */
+    final long[] water;
+
+    /**
+     * The jumps from cell c are the indexes jumpStart[c] up to jumpStart[c + 1] of over and to.
+     */
+    final int[] jumpStart;
+
+    /**
+     * The cell jumped over by every jump.
+     */
+    final int[] over;
+
+    /**
+     * The cell every jump lands on.
+     */
+    final int[] to;
+
+    /**
+     * The rotations and reflections that keep the water and the cells frogs can jump straight from in place,
+     * the identity first.
+     */
+    final int[][] symmetries;
+
+    /**
+     * The buffers of canonical encodings, one per search thread, two bits per cell.
+     */
+    final ThreadLocal<GridSymmetry.Scratch> scratch;
+
+    /**
+     Works out the shape of a board from its cells.
+     @param grid the cells of the board, only the water matters
+     */
+    HoppersShape(String[][] grid) {
+        this.numRows = grid.length;
+        this.numCols = grid[0].length;
+        this.words = (this.numRows * this.numCols + 63) / 64;
+        this.water = new long[this.words];
+        for (int r = 0; r < this.numRows; r++) {
+            for (int c = 0; c < this.numCols; c++) {
+                if (grid[r][c].equals(HoppersConfig.WATER)) {
+                    set(this.water, r * this.numCols + c);
+                }
+            }
+        }
+        int cells = this.numRows * this.numCols;
+        this.jumpStart = new int[cells + 1];
+        int[] overs = new int[8 * cells];
+        int[] tos = new int[8 * cells];
+        int count = 0;
+        for (int r = 0; r < this.numRows; r++) {
+            for (int c = 0; c < this.numCols; c++) {
+                this.jumpStart[r * this.numCols + c] = count;
+                if (isWater(r, c)) continue;
+                for (int[] jump : DIAGONAL_JUMPS) {
+                    count = addJump(overs, tos, count, r, c, jump);
+                }
+                if (r % 2 == 0 && c % 2 == 0) {
+                    for (int[] jump : STRAIGHT_JUMPS) {
+                        count = addJump(overs, tos, count, r, c, jump);
+                    }
+                }
+            }
+        }
+        this.jumpStart[cells] = count;
+        this.over = Arrays.copyOf(overs, count);
+        this.to = Arrays.copyOf(tos, count);
+        this.symmetries = findSymmetries();
+        this.scratch = ThreadLocal.withInitial(() -> new GridSymmetry.Scratch(cells, 2));
+    }
+
+    /**
+     Adds the jump from a cell in one direction if it stays on the board and out of the water.
+     @param overs the cells jumped over so far
+     @param tos the cells landed on so far
+     @param count the number of jumps so far
+     @param r the row of the jumping frog
+     @param c the column of the jumping frog
+     @param jump the row and column offset of the frog that is jumped over
+     @return the new number of jumps
+     */
+    private int addJump(int[] overs, int[] tos, int count, int r, int c, int[] jump) {
+        int frogRow = r + jump[0];
+        int frogCol = c + jump[1];
+        int destRow = r + 2 * jump[0];
+        int destCol = c + 2 * jump[1];
+        if (inBounds(frogRow, frogCol) && inBounds(destRow, destCol) && !isWater(frogRow, frogCol)
+                && !isWater(destRow, destCol)) {
+            overs[count] = frogRow * this.numCols + frogCol;
+            tos[count] = destRow * this.numCols + destCol;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     Finds the rotations and reflections of the board that map water onto water and the cells on even rows and
+     columns, the only ones frogs jump straight from, onto each other. Those keep every jump a jump.
+     @return the symmetries of the board, the identity first
+     */
+    private int[][] findSymmetries() {
+        int[] kinds = new int[this.numRows * this.numCols];
+        for (int r = 0; r < this.numRows; r++) {
+            for (int c = 0; c < this.numCols; c++) {
+                if (isWater(r, c)) {
+                    kinds[r * this.numCols + c] = 2;
+                } else if (r % 2 == 0 && c % 2 == 0) {
+                    kinds[r * this.numCols + c] = 1;
+                }
+            }
+        }
+        return GridSymmetry.preserving(GridSymmetry.dihedral(this.numRows, this.numCols), kinds);
+    }
+
+    /**
+     Checks if a cell is on the board.
+     @param row the row of the cell
+     @param col the column of the cell
+     @return true if the cell is on the board
+     */
+    boolean inBounds(int row, int col) {
+        return row >= 0 && col >= 0 && row < this.numRows && col < this.numCols;
+    }
+
+    /**
+     Checks if a cell is water.
+     @param row the row of the cell
+     @param col the column of the cell
+     @return true if the cell is water
+     */
+    boolean isWater(int row, int col) {
+        return get(this.water, row * this.numCols + col);
+    }
+
+    /**
+     Checks if two shapes have the same size and water.
+     @param other the other shape
+     @return true if the boards look the same without frogs
+     */
+    boolean sameAs(HoppersShape other) {
+        return this == other || (this.numRows == other.numRows && this.numCols == other.numCols
+                && Arrays.equals(this.water, other.water));
+    }
+
+    /**
+     Checks if a cell is in a mask.
+     @param mask the mask
+     @param cell the cell
+     @return true if the cell is in the mask
+     */
+    static boolean get(long[] mask, int cell) {
+        return (mask[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     Adds a cell to a mask.
+     @param mask the mask
+     @param cell the cell
+     */
+    static void set(long[] mask, int cell) {
+        mask[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     Removes a cell from a mask.
+     @param mask the mask
+     @param cell the cell
+     */
+    static void clear(long[] mask, int cell) {
+        mask[cell >>> 6] &= ~(1L << cell);
+    }
+}
@@ -52,6 +52,17 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
         System.out.println( "r(eset)             -- reset the current game" );
     }
 
+    /**
+     * Prints whether the puzzle can still be solved from the current board, waiting at most
+     * HintCache.CHECK_TIMEOUT_MILLIS for a search.
+     */
+    private void displaySolvable() {
+        String line = HoppersModel.solvability(this.model.checkSolvable().join());
+        if (!line.isEmpty()) {
+            System.out.println(line);
+        }
+    }
+
     /**
      * Reads input from the user and executes the corresponding command.
      * The commands are parsed from the input string using a regular expression.
@@ -68,21 +79,25 @@ public class HoppersPTUI implements Observer<HoppersModel, String> {
                 } else if (words[0].startsWith("h")) {
                     this.model.hint();
                     System.out.println(model.ptuiToString());
+                    displaySolvable();
 
                 }
                 else if (words[0].startsWith("l")) {
                     this.model.loadPuzzle(words[1]);
                     System.out.println(model.ptuiToString());
+                    displaySolvable();
 
                 }
                 else if (words[0].startsWith("s")) {
                     this.model.selectCell(Integer.parseInt(words[1]),Integer.parseInt(words[2]));
                     System.out.println(model.ptuiToString());
+                    displaySolvable();
 
                 }
                 else if (words[0].startsWith("r")) {
                     this.model.reset();
                     System.out.println(model.ptuiToString());
+                    displaySolvable();
 
                 }
                 else {
@@ -1,7 +1,9 @@
 package puzzles.hoppers.solver;
 import puzzles.clock.ClockConfig;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverOptions;
 import puzzles.hoppers.model.HoppersConfig;
 import java.io.IOException;
 import java.util.HashMap;
@@ -23,18 +25,22 @@ public class Hoppers {
      @throws IOException if an I/O error occurs while reading the input file
      */
     public static void main(String[] args) throws IOException {
+        SolverOptions options = SolverOptions.parse(args);
+        args = options.getArguments();
         if (args.length != 1) {
-            System.out.println("Usage: java Hoppers filename");
+            System.out.println("Usage: java Hoppers filename [--strategy=bfs|dfs|iddfs|best|astar|idastar|bidirectional|compact|external|parallel|monotone|parallel-monotone] [--cache[=file]] [--timeout=seconds] [--max-nodes=n] [--max-memory=bytes] [--stats[=ms]]");
         }
 
         HoppersConfig config = new HoppersConfig(args[0]);
-        Solver solver = new Solver();
+        Solver solver = options.newSolver();
         System.out.println(config);
 
-        LinkedList<Configuration> path = solver.solve(config);
+        SolveResult result = options.solve(solver, config);
+
+        LinkedList<Configuration> path = result.path();
         int steps = 0;
         if (path.isEmpty( )) {
-            System.out.println("No solution");
+            System.out.println(result.message());
         } else {
             for (Configuration configuration : path) {
                 System.out.println("Step "+ steps++ +":" );
@@ -1,7 +1,9 @@
 package puzzles.strings;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SolveResult;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SolverOptions;
 
 import java.util.LinkedList;
 
@@ -16,17 +18,20 @@ public class Strings {
      * @param args
      */
     public static void main(String[] args) {
+        SolverOptions options = SolverOptions.parse(args);
+        args = options.getArguments();
         if (args.length != 2) {
-            System.out.println(("Usage: java Strings start finish"));
+            System.out.println(("Usage: java Strings start finish [--strategy=bfs|dfs|iddfs|best|astar|idastar|bidirectional|compact|external|parallel|monotone|parallel-monotone] [--cache[=file]] [--timeout=seconds] [--max-nodes=n] [--max-memory=bytes] [--stats[=ms]]"));
         } else {
             String initialConfigString = args[0];
             String finalConfigString = args[1];
             StringsConfig initialConfig = new StringsConfig(initialConfigString, finalConfigString);
-            Solver solver = new Solver();
+            Solver solver = options.newSolver();
             System.out.println(initialConfig);
-            LinkedList<Configuration> path= solver.solve(initialConfig);
+            SolveResult result = options.solve(solver, initialConfig);
+            LinkedList<Configuration> path = result.path();
             if(path.size() == 0){
-                System.out.println("No solution");
+                System.out.println(result.message());
             }else{
                 for(int i = 0; i < path.size(); i++){
                     System.out.println("Step "+ i+": "+((StringsConfig) path.get(i)).getStart());
@@ -1,7 +1,10 @@
 package puzzles.strings;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.EncodableConfiguration;
+import puzzles.common.solver.ReversibleConfiguration;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 
@@ -9,9 +12,11 @@ import java.util.LinkedList;
  * @author gonzaloestrella
  */
 
-public class StringsConfig implements Configuration {
+public class StringsConfig implements ReversibleConfiguration, EncodableConfiguration {
     private String initialConfiguration;
     private String finalConfiguration;
+    /** characters packed into one word of the encoding */
+    private static final int CHARS_PER_WORD = 4;
 
     /**
      * constructor for StringConfig
@@ -32,6 +37,28 @@ public class StringsConfig implements Configuration {
         return this.initialConfiguration.equals(this.finalConfiguration);
     }
 
+    /**
+     * sum over every letter of the number of steps to the final letter going
+     * the shorter way around the alphabet
+     * @return int
+     */
+    @Override
+    public int heuristic() {
+        if(initialConfiguration.length() != finalConfiguration.length()){
+            return 0;
+        }
+        int steps = 0;
+        for(int i=0; i < initialConfiguration.length(); i++){
+            char current = initialConfiguration.charAt(i);
+            char target = finalConfiguration.charAt(i);
+            if(current >= 'A' && current <= 'Z' && target >= 'A' && target <= 'Z'){
+                int distance = Math.abs(current - target);
+                steps += Math.min(distance, 26 - distance);
+            }
+        }
+        return steps;
+    }
+
     /**
      * gets the neighbors of the current instance
      * @return LinkedList<Configuration>
@@ -62,6 +89,91 @@ public class StringsConfig implements Configuration {
         return neighbors;
     }
 
+    /**
+     * the configuration where the string has become the final string
+     * @return Configuration
+     */
+    @Override
+    public Configuration getGoal() {
+        return new StringsConfig(this.finalConfiguration, this.finalConfiguration);
+    }
+
+    /**
+     * gets every configuration that has the current instance as a neighbor,
+     * letters can always be turned back but a letter never turns into
+     * another character, so only letters are tried
+     * @return LinkedList<Configuration>
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        LinkedList<Configuration> predecessors = new LinkedList<>();
+        for(int i=0; i < initialConfiguration.length(); i++){
+            char letter = initialConfiguration.charAt(i);
+            char[] candidates = {(char) (letter+1), (char) (letter-1), letter == 'A' ? 'Z' : letter == 'Z' ? 'A' : letter};
+            for(char candidate : candidates){
+                if(candidate != letter && candidate >= 'A' && candidate <= 'Z' && turnsInto(candidate, letter)){
+                    char[] config = initialConfiguration.toCharArray();
+                    config[i] = candidate;
+                    predecessors.add(new StringsConfig(String.valueOf(config), this.finalConfiguration));
+                }
+            }
+        }
+        return predecessors;
+    }
+
+    /**
+     * checks if one move can turn a character into another, following the
+     * same rules as getNeighbors
+     * @param from char
+     * @param to char
+     * @return boolean
+     */
+    private static boolean turnsInto(char from, char to){
+        if(from == 'Z'){
+            return to == 'A' || to == 'Y';
+        }else if(from == 'A'){
+            return to == 'Z' || to == 'B';
+        }
+        return to == from+1 || to == from-1;
+    }
+
+    /**
+     * the length of the string never changes, four characters fit in a word
+     * @return int
+     */
+    @Override
+    public int encodedWords() {
+        return Math.max(1, (initialConfiguration.length() + CHARS_PER_WORD - 1) / CHARS_PER_WORD);
+    }
+
+    /**
+     * packs the characters of the current string 16 bits each
+     * @param words long[]
+     * @param offset int
+     */
+    @Override
+    public void encode(long[] words, int offset) {
+        Arrays.fill(words, offset, offset + encodedWords(), 0L);
+        for(int i=0; i < initialConfiguration.length(); i++){
+            words[offset + i / CHARS_PER_WORD] |= (long) initialConfiguration.charAt(i) << (i % CHARS_PER_WORD * 16);
+        }
+    }
+
+    /**
+     * rebuilds a configuration with the same final string
+     * @param words long[]
+     * @param offset int
+     * @return Configuration
+     */
+    @Override
+    public Configuration decode(long[] words, int offset) {
+        char[] config = new char[initialConfiguration.length()];
+        for(int i=0; i < config.length; i++){
+            config[i] = (char) (words[offset + i / CHARS_PER_WORD] >>> (i % CHARS_PER_WORD * 16));
+        }
+        return new StringsConfig(String.valueOf(config), this.finalConfiguration);
+    }
+
     /**
      * checks if the current instance of StringConfig equals another Object
      * @param other
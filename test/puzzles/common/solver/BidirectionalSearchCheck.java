@@ -0,0 +1,44 @@
+package puzzles.common.solver;
+
+import puzzles.clock.ClockConfig;
+import puzzles.strings.StringsConfig;
+
+import java.util.List;
+
+/**
+ * Checks that {@link BidirectionalSearch} returns legal paths as short as
+ * those of {@link BreadthFirstSearch}, and no path when the goal cannot be
+ * reached.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class BidirectionalSearchCheck {
+
+    /**
+     * runs the checks
+     * @param args not used
+     */
+    public static void main(String[] args){
+        List<Configuration> configurations = List.of(
+                new ClockConfig(12, 2, 11),
+                new ClockConfig(24, 22, 9),
+                new ClockConfig(12, 5, 5),
+                // ends that are not an hour on the clock can never be reached
+                new ClockConfig(12, 3, 0),
+                new ClockConfig(12, 2, 15),
+                new StringsConfig("CAT", "DOG"),
+                new StringsConfig("AB", "XD"),
+                new StringsConfig("ABC", "ABC"),
+                // letters never turn into other characters
+                new StringsConfig("B", "!"),
+                new StringsConfig("A", "@"));
+        for (Configuration initial : configurations) {
+            List<Configuration> expected = new BreadthFirstSearch().search(initial);
+            List<Configuration> path = new BidirectionalSearch().search(initial);
+            Checks.check(path.size() == expected.size(), initial + ": " + path.size()
+                    + " configurations on the path, bfs has " + expected.size());
+            Checks.checkPath(initial, path, initial.toString());
+        }
+        Checks.finish("BidirectionalSearchCheck");
+    }
+}
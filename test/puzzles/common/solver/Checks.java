@@ -0,0 +1,71 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * Helpers shared by the checks of the solver. Every check is a main that
+ * runs from the project directory, so the data files are found, and exits
+ * with status 1 if anything failed:
+ * <pre>
+ * javac -d out/test/ChessHoppers $(find src test -name '*.java' ! -path '*gui*' ! -name module-info.java)
+ * java -cp out/test/ChessHoppers puzzles.common.solver.StrategyCheck
+ * </pre>
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+final class Checks {
+    /** number of checks that failed so far */
+    private static int failures;
+
+    /**
+     * Checks constructor, never called
+     */
+    private Checks(){
+    }
+
+    /**
+     * records a check, printing it if it failed
+     * @param condition what has to hold
+     * @param what what was checked
+     */
+    static void check(boolean condition, String what){
+        if (!condition) {
+            failures++;
+            System.out.println("FAIL " + what);
+        }
+    }
+
+    /**
+     * checks that a path starts at the initial configuration, that every
+     * configuration is a neighbor of the one before it and that it ends in
+     * a solution. An empty path, no solution, is left alone.
+     * @param initial the configuration the search started from
+     * @param path the path the search returned
+     * @param what what was searched
+     */
+    static void checkPath(Configuration initial, List<Configuration> path, String what){
+        if (path.isEmpty()) {
+            return;
+        }
+        check(path.get(0).equals(initial), what + ": path does not start at the initial configuration");
+        for (int i = 1; i < path.size(); i++) {
+            if (!path.get(i - 1).getNeighbors().contains(path.get(i))) {
+                check(false, what + ": step " + i + " is not a legal move");
+                return;
+            }
+        }
+        check(path.get(path.size() - 1).isSolution(), what + ": path does not end in a solution");
+    }
+
+    /**
+     * prints how the checks went and exits with status 1 if any failed
+     * @param name the name of the check
+     */
+    static void finish(String name){
+        if (failures > 0) {
+            System.out.println(name + ": " + failures + " failed");
+            System.exit(1);
+        }
+        System.out.println(name + ": ok");
+    }
+}
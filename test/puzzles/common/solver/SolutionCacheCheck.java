@@ -0,0 +1,131 @@
+package puzzles.common.solver;
+
+import puzzles.chess.model.ChessConfig;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Checks that a {@link SolutionCache} gives back the solutions it was given,
+ * across runs, and that a damaged or foreign file never gives a wrong
+ * answer: a cut off or corrupted record is dropped with everything after
+ * it, and a file that is not a solution cache is refused and left as it is.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class SolutionCacheCheck {
+
+    /**
+     * runs the checks
+     * @param args not used
+     * @throws IOException if a puzzle or the cache cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("solution-cache-check");
+        try {
+            check(directory);
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+        Checks.finish("SolutionCacheCheck");
+    }
+
+    /**
+     * runs the checks on cache files in a directory
+     * @param directory where the files go
+     * @throws IOException if a puzzle or the cache cannot be read
+     */
+    private static void check(Path directory) throws IOException {
+        Configuration chess = new ChessConfig("data/chess/chess-1.txt");
+        Configuration hoppers = new HoppersConfig("data/hoppers/hoppers-6.txt");
+        LinkedList<Configuration> chessPath = new BreadthFirstSearch().search(chess);
+        LinkedList<Configuration> hoppersPath = new BreadthFirstSearch().search(hoppers);
+        Checks.check(chessPath.size() > 1 && hoppersPath.size() > 1, "the puzzles used have no solution");
+
+        Path file = directory.resolve("solutions.cache");
+        SolutionCache cache = new SolutionCache(file, SolutionCache.DEFAULT_MAX_ENTRIES);
+        Checks.check(cache.get(chess) == null, "an empty cache had a solution");
+        cache.put(chessPath);
+        long oneRecord = Files.size(file);
+        cache.put(hoppersPath);
+        Checks.check(chessPath.equals(cache.get(chess)), "the chess solution did not come back");
+        Checks.check(hoppersPath.equals(cache.get(hoppers)), "the hoppers solution did not come back");
+        Checks.check(new SolutionCache(file, SolutionCache.DEFAULT_MAX_ENTRIES).size() == 2,
+                "reopening the file did not give both solutions");
+
+        // a record cut short, as a crash while appending leaves it
+        Files.delete(file);
+        cache = new SolutionCache(file, SolutionCache.DEFAULT_MAX_ENTRIES);
+        cache.put(chessPath);
+        cache.put(hoppersPath);
+        truncate(file, Files.size(file) - 3);
+        cache = new SolutionCache(file, SolutionCache.DEFAULT_MAX_ENTRIES);
+        Checks.check(cache.size() == 1 && chessPath.equals(cache.get(chess)) && cache.get(hoppers) == null,
+                "a cut off record was not dropped on its own");
+        Checks.check(Files.size(file) >= oneRecord && new SolutionCache(file, 16).size() == 1,
+                "the file was not cut back to the good records");
+
+        // a record whose bytes changed after it was written
+        Files.delete(file);
+        cache = new SolutionCache(file, SolutionCache.DEFAULT_MAX_ENTRIES);
+        cache.put(chessPath);
+        cache.put(hoppersPath);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 6] ^= 1;
+        Files.write(file, bytes);
+        cache = new SolutionCache(file, SolutionCache.DEFAULT_MAX_ENTRIES);
+        Checks.check(cache.size() == 1 && chessPath.equals(cache.get(chess)) && cache.get(hoppers) == null,
+                "a record failing its checksum was not dropped");
+
+        // somebody else's file given as the cache
+        Path foreign = directory.resolve("notes.txt");
+        byte[] text = "not a cache, and must not be truncated".getBytes();
+        Files.write(foreign, text);
+        try {
+            new SolutionCache(foreign, SolutionCache.DEFAULT_MAX_ENTRIES);
+            Checks.check(false, "a file that is not a solution cache was opened");
+        } catch (IOException e) {
+            Checks.check(e.getMessage().endsWith("is not a solution cache"), "unexpected error: " + e.getMessage());
+        }
+        Checks.check(Arrays.equals(text, Files.readAllBytes(foreign)), "a file that is not a solution cache changed");
+
+        // the least recently used solution goes first
+        Path small = directory.resolve("small.cache");
+        cache = new SolutionCache(small, 1);
+        cache.put(chessPath);
+        cache.put(hoppersPath);
+        Checks.check(cache.size() == 1 && cache.get(chess) == null && hoppersPath.equals(cache.get(hoppers)),
+                "the oldest solution was not evicted");
+        Checks.check(new SolutionCache(small, 1).size() == 1, "reopening a full cache gave more than it holds");
+
+        // a path that does not follow the moves of the puzzle is not kept
+        Path other = directory.resolve("other.cache");
+        cache = new SolutionCache(other, SolutionCache.DEFAULT_MAX_ENTRIES);
+        cache.put(List.of(chess, hoppersPath.getLast()));
+        Checks.check(cache.size() == 0 && cache.get(chess) == null, "a path with an illegal move was kept");
+    }
+
+    /**
+     * cuts a file short
+     * @param file the file
+     * @param size the size it is cut to
+     * @throws IOException if the file cannot be written
+     */
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+}
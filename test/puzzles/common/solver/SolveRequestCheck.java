@@ -0,0 +1,89 @@
+package puzzles.common.solver;
+
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that a {@link SolveRequest} stops a search when it is cancelled,
+ * interrupted or runs out of its budget, for the sequential and the
+ * parallel strategies, and that progress samples of a running search see
+ * its counters move.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class SolveRequestCheck {
+    /** a puzzle every strategy below takes well over a hundred milliseconds on */
+    private static final String PUZZLE = "data/hoppers/hoppers-8.txt";
+    /** strategies checked, as given to --strategy */
+    private static final String[] STRATEGIES = {"bfs", "compact", "parallel"};
+    /** milliseconds a stopped search may take to return */
+    private static final long STOP_MILLIS = 1_000;
+
+    /**
+     * runs the checks
+     * @param args not used
+     * @throws Exception if a puzzle cannot be read or a solve failed
+     */
+    public static void main(String[] args) throws Exception {
+        Configuration puzzle = new HoppersConfig(PUZZLE);
+        int expected = new BreadthFirstSearch().search(puzzle).size();
+        for (String name : STRATEGIES) {
+            SolveRequest cancelled = new SolveRequest(puzzle);
+            cancelled.cancel();
+            SolveResult result = solver(name).solve(cancelled);
+            Checks.check(result.status() == SolveResult.Status.CANCELLED && result.path().isEmpty(),
+                    name + ": a request cancelled before the solve gave " + result.status());
+
+            result = solver(name).solve(new SolveRequest(puzzle).setMaxNodes(1_000));
+            Checks.check(result.status() == SolveResult.Status.BUDGET_EXHAUSTED && result.path().isEmpty(),
+                    name + ": a limit of 1000 configurations gave " + result.status());
+
+            result = solver(name).solve(new SolveRequest(puzzle).setTimeout(20));
+            Checks.check(result.status() == SolveResult.Status.BUDGET_EXHAUSTED
+                    && result.reason().startsWith("time limit"), name + ": a 20 ms time limit gave "
+                    + result.status() + ", " + result.reason());
+
+            SolveRequest request = new SolveRequest(puzzle);
+            CompletableFuture<SolveResult> running = CompletableFuture.supplyAsync(() -> solver(name).solve(request));
+            Thread.sleep(20);
+            request.cancel();
+            result = running.get(STOP_MILLIS, TimeUnit.MILLISECONDS);
+            Checks.check(result.status() == SolveResult.Status.CANCELLED,
+                    name + ": cancelling the running solve gave " + result.status());
+
+            SolveResult[] interrupted = new SolveResult[1];
+            boolean[] flagLeft = new boolean[1];
+            Thread thread = new Thread(() -> {
+                interrupted[0] = solver(name).solve(new SolveRequest(puzzle));
+                flagLeft[0] = Thread.currentThread().isInterrupted();
+            });
+            thread.start();
+            Thread.sleep(20);
+            thread.interrupt();
+            thread.join(STOP_MILLIS);
+            Checks.check(!thread.isAlive() && interrupted[0].status() == SolveResult.Status.CANCELLED && flagLeft[0],
+                    name + ": interrupting the solve gave "
+                            + (interrupted[0] == null ? "nothing" : interrupted[0].status()));
+
+            AtomicLong sampled = new AtomicLong();
+            result = solver(name).solve(new SolveRequest(puzzle)
+                    .setProgress((solving, stats) -> sampled.accumulateAndGet(stats.getExpanded(), Math::max), 10));
+            Checks.check(result.status() == SolveResult.Status.SOLVED && result.path().size() == expected,
+                    name + ": a solve with no limits gave " + result.status() + " in " + result.path().size());
+            Checks.check(sampled.get() > 0, name + ": no progress sample saw a configuration expanded");
+        }
+        Checks.finish("SolveRequestCheck");
+    }
+
+    /**
+     * a solver with no cache for a strategy
+     * @param name the strategy, as given to --strategy
+     * @return Solver
+     */
+    private static Solver solver(String name){
+        return new Solver(SolverOptions.parse(new String[]{"--strategy=" + name}).getStrategy());
+    }
+}
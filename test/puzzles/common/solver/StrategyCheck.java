@@ -0,0 +1,63 @@
+package puzzles.common.solver;
+
+import puzzles.chess.model.ChessConfig;
+import puzzles.hoppers.model.HoppersConfig;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that every strategy {@link SolverOptions} can pick returns a legal
+ * path as long as the one from {@link BreadthFirstSearch} on every chess and
+ * hoppers puzzle in data, or no path when BFS finds none. Every move of
+ * these puzzles removes a piece, so every solution of a board is the same
+ * number of moves long and the strategies that do not look for the shortest
+ * path must find one this long too. A search that runs out of time, like
+ * iddfs on the bigger boards, is listed as not checked.
+ *
+ * @author Gonzalo Estrella && Aniruddha Roy
+ */
+public class StrategyCheck {
+    /** every strategy, as given to --strategy */
+    private static final String[] STRATEGIES = {"bfs", "dfs", "iddfs", "best", "astar", "idastar", "bidirectional",
+            "compact", "external", "parallel", "monotone", "parallel-monotone"};
+    /** number of puzzles of each kind in data */
+    private static final int PUZZLES = 10;
+    /** milliseconds one search may take */
+    private static final long TIME_LIMIT_MILLIS = 10_000;
+
+    /**
+     * runs the checks
+     * @param args not used
+     * @throws IOException if a puzzle cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, Configuration> puzzles = new LinkedHashMap<>();
+        for (int i = 0; i < PUZZLES; i++) {
+            String chess = "data/chess/chess-" + i + ".txt";
+            String hoppers = "data/hoppers/hoppers-" + i + ".txt";
+            puzzles.put(chess, new ChessConfig(chess));
+            puzzles.put(hoppers, new HoppersConfig(hoppers));
+        }
+        for (Map.Entry<String, Configuration> puzzle : puzzles.entrySet()) {
+            int expected = new BreadthFirstSearch().search(puzzle.getValue()).size();
+            for (String name : STRATEGIES) {
+                SearchStrategy strategy = SolverOptions.parse(new String[]{"--strategy=" + name}).getStrategy();
+                SolveResult result = new Solver(strategy).solve(new SolveRequest(puzzle.getValue())
+                        .setTimeout(TIME_LIMIT_MILLIS));
+                String what = name + " on " + puzzle.getKey();
+                if (result.status() == SolveResult.Status.BUDGET_EXHAUSTED) {
+                    System.out.println(what + ": not checked, " + result.reason());
+                    continue;
+                }
+                List<Configuration> path = result.path();
+                Checks.check(path.size() == expected, what + ": " + path.size()
+                        + " configurations on the path, bfs has " + expected);
+                Checks.checkPath(puzzle.getValue(), path, what);
+            }
+        }
+        Checks.finish("StrategyCheck");
+    }
+}